@@ -2,8 +2,12 @@ package com.hellenicbank;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableRetry
+@EnableScheduling
 public class AegisBankApplication {
 
     public static void main(String[] args) {
@@ -11,5 +15,3 @@ public class AegisBankApplication {
     }
 
 }
-
-
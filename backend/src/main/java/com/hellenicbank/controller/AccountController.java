@@ -5,35 +5,53 @@ import com.hellenicbank.dto.AccountResponse;
 import com.hellenicbank.dto.AccountUpdateRequest;
 import com.hellenicbank.dto.TransferResponse;
 import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.BalanceSnapshotRun;
 import com.hellenicbank.entity.User;
 import com.hellenicbank.security.CustomUserDetailsService;
+import com.hellenicbank.service.AccountPartitionExecutor;
 import com.hellenicbank.service.AccountService;
+import com.hellenicbank.service.BalanceSnapshotService;
+import com.hellenicbank.service.ExportService;
+import com.hellenicbank.service.LedgerService;
 import com.hellenicbank.service.TransferService;
 import com.hellenicbank.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/accounts")
 @RequiredArgsConstructor
 public class AccountController {
     
+    // Statement balances travel in headers, so the CSV body holds only transaction rows
+    private static final String OPENING_BALANCE_HEADER = "X-Opening-Balance";
+    private static final String CLOSING_BALANCE_HEADER = "X-Closing-Balance";
+    
     private final AccountService accountService;
     private final TransferService transferService;
     private final UserService userService;
+    private final LedgerService ledgerService;
+    private final AccountPartitionExecutor accountPartitionExecutor;
+    private final ExportService exportService;
+    private final BalanceSnapshotService balanceSnapshotService;
     
     @GetMapping
     public ResponseEntity<List<AccountResponse>> getUserAccounts(Authentication authentication) {
@@ -90,7 +108,7 @@ public class AccountController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<AccountResponse> updateAccount(@PathVariable Long id, 
+    public CompletableFuture<ResponseEntity<AccountResponse>> updateAccount(@PathVariable Long id, 
                                                         @Valid @RequestBody AccountUpdateRequest request,
                                                         Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
@@ -98,12 +116,12 @@ public class AccountController {
         
         Optional<Account> accountOpt = accountService.findById(id);
         if (accountOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
         }
         
         Account account = accountOpt.get();
         if (!account.getUser().getId().equals(user.getId()) && user.getRole() != User.Role.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
         }
         
         // Users can update type and status (freeze/unfreeze), admins can update everything
@@ -134,18 +152,26 @@ public class AccountController {
             }
         }
         
-        Account updatedAccount = accountService.updateAccount(account);
-        return ResponseEntity.ok(new AccountResponse(updatedAccount));
+        // Balance edits are serialized with the account's other balance changes
+        return accountPartitionExecutor.submit(id, () -> new AccountResponse(accountService.updateAccount(account)))
+                .thenApply(ResponseEntity::ok);
     }
     
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AccountResponse>> getAllAccounts() {
-        List<Account> accounts = accountService.getAllAccounts();
-        List<AccountResponse> accountResponses = accounts.stream()
-                .map(AccountResponse::new)
-                .toList();
-        return ResponseEntity.ok(accountResponses);
+    public ResponseEntity<List<AccountResponse>> getAllAccounts(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        try {
+            return accountService.getAccountsPage(cursor, size).map(AccountResponse::new).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/admin/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(defaultValue = "false") boolean gzip) {
+        return ExportService.ndjsonResponse(exportService.exportAccounts(gzip), gzip);
     }
     
     @GetMapping("/admin/pending")
@@ -214,6 +240,77 @@ public class AccountController {
         }
     }
     
+    // LEDGER operations
+    @GetMapping("/admin/ledger/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<Long, BigDecimal>> verifyLedger() {
+        // Accounts whose balance differs from the journal, with the journal balance
+        return ResponseEntity.ok(ledgerService.findBalanceMismatches());
+    }
+    
+    @PostMapping("/admin/{id}/ledger/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildBalanceFromLedger(@PathVariable Long id) {
+        try {
+            BigDecimal balance = ledgerService.rebuildBalance(id);
+            return ResponseEntity.ok(Map.of("accountId", id, "balance", balance));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    // BALANCE HISTORY
+    @GetMapping("/{id}/balance-history")
+    public ResponseEntity<Map<String, Object>> getBalanceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String interval,
+            Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        Optional<Account> account = accountService.findById(id)
+                .filter(a -> a.getUser().getId().equals(user.getId()) || user.getRole() == User.Role.ADMIN);
+        if (account.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(balanceSnapshotService.getBalanceHistory(id, account.get().getBalance(), from, to, interval));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Balance at an instant, e.g. for disputes: nearest snapshot plus the postings after it
+    @GetMapping("/{id}/balance-at")
+    public ResponseEntity<Map<String, Object>> getBalanceAt(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        Optional<Account> account = accountService.findById(id)
+                .filter(a -> a.getUser().getId().equals(user.getId()) || user.getRole() == User.Role.ADMIN);
+        if (account.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("accountId", id, "at", at, "balance", accountService.getBalanceAt(id, at)));
+    }
+    
+    // Snapshots (or resumes) one past day; the scheduler does this for every day on its own
+    @PostMapping("/admin/balance-snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BalanceSnapshotRun> snapshotBalances(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        try {
+            return ResponseEntity.ok(balanceSnapshotService.snapshot(day));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteAccount(@PathVariable Long id) {
@@ -258,11 +355,12 @@ public class AccountController {
     }
     
     @GetMapping("/{id}/statement")
-    public ResponseEntity<byte[]> downloadStatement(
+    public ResponseEntity<StreamingResponseBody> downloadStatement(
             @PathVariable Long id,
             @RequestParam String startDate,
             @RequestParam String endDate,
             @RequestParam(defaultValue = "PDF") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
             Authentication authentication) {
         try {
             CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
@@ -277,16 +375,22 @@ public class AccountController {
             LocalDate start = LocalDate.parse(startDate);
             LocalDate end = LocalDate.parse(endDate);
             
-            byte[] statementData = transferService.generateStatement(id, start, end, format);
+            TransferService.Statement statement = transferService.generateStatement(id, start, end, format, gzip);
             
             String contentType = format.equalsIgnoreCase("PDF") ? "application/pdf" : "text/csv";
             String filename = String.format("statement_%s_%s_%s.%s", 
                 account.get().getIban(), startDate, endDate, format.toLowerCase());
             
-            return ResponseEntity.ok()
+            // No Content-Length: the body is sent chunked as it is written
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .header("Content-Type", contentType)
                     .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
-                    .body(statementData);
+                    .header(OPENING_BALANCE_HEADER, statement.openingBalance().toPlainString())
+                    .header(CLOSING_BALANCE_HEADER, statement.closingBalance().toPlainString());
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(statement.body());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -384,9 +488,11 @@ public class AccountController {
             }
             
             System.out.println("About to save account with balance: " + account.getBalance());
-            Account updatedAccount = accountService.updateAccount(account);
+            AccountResponse updatedAccount = accountPartitionExecutor
+                    .submit(id, () -> new AccountResponse(accountService.updateAccount(account)))
+                    .join();
             System.out.println("Account saved successfully");
-            return ResponseEntity.ok(new AccountResponse(updatedAccount));
+            return ResponseEntity.ok(updatedAccount);
         } catch (Exception e) {
             System.err.println("Error updating account: " + e.getMessage());
             e.printStackTrace();
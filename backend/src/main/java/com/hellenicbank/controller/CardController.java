@@ -1,5 +1,6 @@
 package com.hellenicbank.controller;
 
+import com.hellenicbank.dto.CardFilter;
 import com.hellenicbank.dto.CardRequest;
 import com.hellenicbank.dto.CardResponse;
 import com.hellenicbank.dto.CardStatusUpdateRequest;
@@ -7,6 +8,7 @@ import com.hellenicbank.entity.Card;
 import com.hellenicbank.entity.User;
 import com.hellenicbank.security.CustomUserDetailsService;
 import com.hellenicbank.service.CardService;
+import com.hellenicbank.service.ExportService;
 import com.hellenicbank.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +18,7 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -29,6 +32,7 @@ public class CardController {
     
     private final CardService cardService;
     private final UserService userService;
+    private final ExportService exportService;
     
     @GetMapping
     public ResponseEntity<List<CardResponse>> getMyCards(Authentication authentication) {
@@ -39,6 +43,22 @@ public class CardController {
         return ResponseEntity.ok(cards);
     }
     
+    @GetMapping("/filter")
+    public ResponseEntity<List<CardResponse>> filterMyCards(@ModelAttribute CardFilter filter,
+                                                            @RequestParam(required = false) String sort,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size,
+                                                            Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            return cardService.filterCards(filter, user.getId(), sort, cursor, size).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<CardResponse>> getAllCards() {
@@ -55,9 +75,32 @@ public class CardController {
     
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<CardResponse>> getAllCardsAdmin() {
-        List<CardResponse> cards = cardService.getAllCards();
-        return ResponseEntity.ok(cards);
+    public ResponseEntity<List<CardResponse>> getAllCardsAdmin(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        try {
+            return cardService.getCardsPage(cursor, size).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/admin/filter")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CardResponse>> filterCardsAdmin(@ModelAttribute CardFilter filter,
+                                                               @RequestParam(required = false) String sort,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        try {
+            return cardService.filterCards(filter, null, sort, cursor, size).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/admin/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportCards(@RequestParam(defaultValue = "false") boolean gzip) {
+        return ExportService.ndjsonResponse(exportService.exportCards(gzip), gzip);
     }
     
     @GetMapping("/{id}")
@@ -1,11 +1,13 @@
 package com.hellenicbank.controller;
 
+import com.hellenicbank.dto.LoanFilter;
 import com.hellenicbank.dto.LoanRequest;
 import com.hellenicbank.dto.LoanResponse;
 import com.hellenicbank.dto.LoanStatusUpdateRequest;
 import com.hellenicbank.entity.Loan;
 import com.hellenicbank.entity.User;
 import com.hellenicbank.security.CustomUserDetailsService;
+import com.hellenicbank.service.ExportService;
 import com.hellenicbank.service.LoanService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,9 +27,11 @@ import java.util.Map;
 public class LoanController {
     
     private final LoanService loanService;
+    private final ExportService exportService;
     
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, ExportService exportService) {
         this.loanService = loanService;
+        this.exportService = exportService;
     }
     
     // CREATE operations
@@ -125,6 +130,25 @@ public class LoanController {
     }
     
     // Search and filter operations
+    @GetMapping("/filter")
+    public ResponseEntity<List<LoanResponse>> filterLoans(
+            @ModelAttribute LoanFilter filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = 
+            (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            return loanService.filterLoans(filter, user.getId(), sort, cursor, size)
+                    .map(loanService::convertToLoanResponse).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/search/amount-range")
     public ResponseEntity<List<LoanResponse>> getLoansByAmountRange(
             @RequestParam BigDecimal minAmount,
@@ -157,13 +181,19 @@ public class LoanController {
     @GetMapping("/search/purpose")
     public ResponseEntity<List<LoanResponse>> getLoansByPurpose(
             @RequestParam String purpose,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = 
             (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
         User user = userPrincipal.getUser();
         
-        List<Loan> loans = loanService.getLoansByPurpose(user.getId(), purpose);
-        return ResponseEntity.ok(loanService.convertToLoanResponses(loans));
+        try {
+            return loanService.searchLoansByPurpose(user.getId(), purpose, cursor, size)
+                    .map(loanService::convertToLoanResponse).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // ADMIN operations
@@ -176,9 +206,19 @@ public class LoanController {
     
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<LoanResponse>> getAllLoansAdminAll() {
-        List<Loan> loans = loanService.getAllLoans();
-        return ResponseEntity.ok(loanService.convertToLoanResponses(loans));
+    public ResponseEntity<List<LoanResponse>> getAllLoansAdminAll(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        try {
+            return loanService.getLoansPage(cursor, size).map(loanService::convertToLoanResponse).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/admin/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportLoans(@RequestParam(defaultValue = "false") boolean gzip) {
+        return ExportService.ndjsonResponse(exportService.exportLoans(gzip), gzip);
     }
     
     @GetMapping("/admin/{id}")
@@ -244,6 +284,21 @@ public class LoanController {
     }
     
     // Admin search operations
+    @GetMapping("/admin/filter")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<LoanResponse>> filterLoansAdmin(
+            @ModelAttribute LoanFilter filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return loanService.filterLoans(filter, null, sort, cursor, size)
+                    .map(loanService::convertToLoanResponse).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/admin/search/amount-range")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<LoanResponse>> getLoansByAmountRangeAdmin(
@@ -267,9 +322,15 @@ public class LoanController {
     
     @GetMapping("/admin/search/purpose")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<LoanResponse>> getLoansByPurposeAdmin(@RequestParam String purpose) {
-        List<Loan> loans = loanService.getLoansByPurposeAdmin(purpose);
-        return ResponseEntity.ok(loanService.convertToLoanResponses(loans));
+    public ResponseEntity<List<LoanResponse>> getLoansByPurposeAdmin(@RequestParam String purpose,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
+        try {
+            return loanService.searchLoansByPurposeAdmin(purpose, cursor, size)
+                    .map(loanService::convertToLoanResponse).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Statistics endpoints
@@ -0,0 +1,66 @@
+package com.hellenicbank.controller;
+
+import com.hellenicbank.dto.ScheduledTransferRequest;
+import com.hellenicbank.dto.ScheduledTransferResponse;
+import com.hellenicbank.entity.ScheduledTransfer;
+import com.hellenicbank.entity.User;
+import com.hellenicbank.security.CustomUserDetailsService;
+import com.hellenicbank.service.ScheduledTransferEngine;
+import com.hellenicbank.service.ScheduledTransferService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/scheduled-transfers")
+@RequiredArgsConstructor
+public class ScheduledTransferController {
+    
+    private final ScheduledTransferService scheduledTransferService;
+    private final ObjectProvider<ScheduledTransferEngine> scheduledTransferEngine;
+    
+    @GetMapping
+    public ResponseEntity<List<ScheduledTransferResponse>> getMyScheduledTransfers(Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        List<ScheduledTransferResponse> scheduled = scheduledTransferService.getUserScheduledTransfers(user.getId()).stream()
+                .map(ScheduledTransferResponse::new)
+                .toList();
+        return ResponseEntity.ok(scheduled);
+    }
+    
+    @PostMapping
+    public ResponseEntity<ScheduledTransferResponse> createScheduledTransfer(@Valid @RequestBody ScheduledTransferRequest request,
+                                                                            Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            ScheduledTransfer scheduled = scheduledTransferService.createScheduledTransfer(request, user.getId());
+            // Committed by now; hand it to the wheel in case it is due within the loaded window
+            scheduledTransferEngine.ifAvailable(engine -> engine.schedule(scheduled.getId(), scheduled.getExecuteAt()));
+            return ResponseEntity.ok(new ScheduledTransferResponse(scheduled));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ScheduledTransferResponse> cancelScheduledTransfer(@PathVariable Long id, Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            ScheduledTransfer scheduled = scheduledTransferService.cancelScheduledTransfer(id, user.getId());
+            return ResponseEntity.ok(new ScheduledTransferResponse(scheduled));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hellenicbank.controller;
+
+import com.hellenicbank.service.StatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+@RequiredArgsConstructor
+public class StatisticsController {
+    
+    private final StatisticsService statisticsService;
+    
+    // Counts (and loan/transfer totals) by status and type for accounts, cards, loans and transfers; users by role
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSnapshot() {
+        return ResponseEntity.ok(statisticsService.snapshot());
+    }
+    
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconcile() {
+        statisticsService.reconcile();
+        return ResponseEntity.ok(statisticsService.snapshot());
+    }
+}
@@ -1,22 +1,36 @@
 package com.hellenicbank.controller;
 
+import com.hellenicbank.dto.BatchTransferRequest;
+import com.hellenicbank.dto.BatchTransferResult;
+import com.hellenicbank.dto.TransferFilter;
 import com.hellenicbank.dto.TransferRequest;
 import com.hellenicbank.dto.TransferResponse;
 import com.hellenicbank.dto.UpdateTransferRequest;
 import com.hellenicbank.entity.Transfer;
 import com.hellenicbank.entity.User;
 import com.hellenicbank.security.CustomUserDetailsService;
+import com.hellenicbank.service.AccountPartitionExecutor;
+import com.hellenicbank.service.ExportService;
+import com.hellenicbank.service.IdempotencyService;
+import com.hellenicbank.service.SettlementService;
+import com.hellenicbank.service.SpendingRollupService;
 import com.hellenicbank.service.TransferService;
+import com.hellenicbank.service.TransferStateMachine;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/transfers")
@@ -24,16 +38,42 @@ import java.util.List;
 public class TransferController {
     
     private final TransferService transferService;
+    private final IdempotencyService idempotencyService;
+    private final AccountPartitionExecutor accountPartitionExecutor;
+    private final SettlementService settlementService;
+    private final ExportService exportService;
+    private final SpendingRollupService spendingRollupService;
     
     @PostMapping
     public ResponseEntity<TransferResponse> createTransfer(@Valid @RequestBody TransferRequest request,
+                                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                           Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
         User user = userPrincipal.getUser();
         
         try {
-            Transfer transfer = transferService.createTransfer(request, user.getId());
-            return ResponseEntity.ok(new TransferResponse(transfer));
+            TransferResponse response = idempotencyService.execute(user.getId(), idempotencyKey, "create", request,
+                    TransferResponse.class, () -> new TransferResponse(transferService.createTransfer(request, user.getId())));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same Idempotency-Key won the race
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchTransferResult>> createTransfersBatch(@Valid @RequestBody BatchTransferRequest request,
+                                                                         Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            List<BatchTransferResult> results = transferService.createTransfersBatch(request.getTransfers(), user.getId());
+            return ResponseEntity.ok(results);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -45,16 +85,29 @@ public class TransferController {
                                                                @RequestParam BigDecimal amount,
                                                                @RequestParam(required = false) String description,
                                                                @RequestParam(required = false) String category,
+                                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                                Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
         User user = userPrincipal.getUser();
         
         try {
-            Transfer transfer = transferService.createTransfer(fromAccountId, toIban, amount, 
-                                                             description, category, user.getId());
-            return ResponseEntity.ok(new TransferResponse(transfer));
+            TransferRequest fingerprint = new TransferRequest();
+            fingerprint.setFromAccountId(fromAccountId);
+            fingerprint.setToIban(toIban);
+            fingerprint.setAmount(amount);
+            fingerprint.setDescription(description);
+            fingerprint.setCategory(category);
+            
+            TransferResponse response = idempotencyService.execute(user.getId(), idempotencyKey, "legacy", fingerprint,
+                    TransferResponse.class, () -> new TransferResponse(transferService.createTransfer(fromAccountId, toIban, amount,
+                                                                                                    description, category, user.getId())));
+            return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
@@ -64,16 +117,29 @@ public class TransferController {
                                                                      @RequestParam BigDecimal amount,
                                                                      @RequestParam(required = false) String description,
                                                                      @RequestParam(required = false) String category,
+                                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                                      Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
         User user = userPrincipal.getUser();
         
         try {
-            Transfer transfer = transferService.createInterAccountTransfer(fromAccountId, toAccountId, amount, 
-                                                                         description, category, user.getId());
-            return ResponseEntity.ok(new TransferResponse(transfer));
+            TransferRequest fingerprint = new TransferRequest();
+            fingerprint.setFromAccountId(fromAccountId);
+            fingerprint.setToAccountId(toAccountId);
+            fingerprint.setAmount(amount);
+            fingerprint.setDescription(description);
+            fingerprint.setCategory(category);
+            
+            TransferResponse response = idempotencyService.execute(user.getId(), idempotencyKey, "inter-account", fingerprint,
+                    TransferResponse.class, () -> new TransferResponse(transferService.createInterAccountTransfer(fromAccountId, toAccountId, amount,
+                                                                                                                description, category, user.getId())));
+            return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
@@ -110,6 +176,27 @@ public class TransferController {
         return ResponseEntity.ok(transferResponses);
     }
     
+    // Spending by category for a month, or for a year (with a per-month split) when month is omitted
+    @GetMapping("/spending")
+    public ResponseEntity<Map<String, Object>> getSpending(@RequestParam int year,
+                                                           @RequestParam(required = false) Integer month,
+                                                           @RequestParam(required = false) Long accountId,
+                                                           Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        try {
+            return ResponseEntity.ok(spendingRollupService.getSpending(user.getId(), accountId, year, month));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/admin/spending/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> backfillSpending() {
+        return ResponseEntity.ok(spendingRollupService.backfill());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<TransferResponse> getTransfer(@PathVariable Long id, Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
@@ -123,45 +210,72 @@ public class TransferController {
     }
     
     @PostMapping("/{id}/process")
-    public ResponseEntity<TransferResponse> processTransfer(@PathVariable Long id, Authentication authentication) {
+    public CompletableFuture<ResponseEntity<TransferResponse>> processTransfer(@PathVariable Long id, Authentication authentication) {
         CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
         User user = userPrincipal.getUser();
         
-        try {
-            Transfer transfer = transferService.processTransfer(id, user.getId());
-            return ResponseEntity.ok(new TransferResponse(transfer));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
+        TransferService.AccountPair accounts = transferService.findAccountPair(id)
+                .orElse(new TransferService.AccountPair(null, null));
+        return accountPartitionExecutor.submit(accounts.sourceAccountId(), accounts.destinationAccountId(),
+                        () -> new TransferResponse(transferService.processTransfer(id, user.getId())))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(response);
+                    }
+                    // Lost the race against a concurrent process/cancel of the same transfer
+                    return error instanceof TransferStateMachine.StateConflictException
+                            ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                            : ResponseEntity.badRequest().build();
+                });
     }
     
     @PostMapping("/admin/{id}/process")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<TransferResponse> processTransferAdmin(@PathVariable Long id) {
-        try {
-            Transfer transfer = transferService.processTransferAdmin(id);
-            return ResponseEntity.ok(new TransferResponse(transfer));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<TransferResponse>> processTransferAdmin(@PathVariable Long id) {
+        TransferService.AccountPair accounts = transferService.findAccountPair(id)
+                .orElse(new TransferService.AccountPair(null, null));
+        return accountPartitionExecutor.submit(accounts.sourceAccountId(), accounts.destinationAccountId(),
+                        () -> new TransferResponse(transferService.processTransferAdmin(id)))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(response);
+                    }
+                    // Lost the race against a concurrent process/cancel of the same transfer
+                    return error instanceof TransferStateMachine.StateConflictException
+                            ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                            : ResponseEntity.badRequest().build();
+                });
     }
     
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<TransferResponse> updateTransferStatus(@PathVariable Long id,
                                                         @RequestParam Transfer.TransferStatus status) {
-        Transfer transfer = transferService.updateTransferStatus(id, status);
-        return ResponseEntity.ok(new TransferResponse(transfer));
+        try {
+            Transfer transfer = transferService.updateTransferStatus(id, status);
+            return ResponseEntity.ok(new TransferResponse(transfer));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (TransferStateMachine.StateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
     
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<TransferResponse>> getAllTransfers() {
-        List<Transfer> transfers = transferService.getAllTransfers();
-        List<TransferResponse> transferResponses = transfers.stream()
-                .map(TransferResponse::new)
-                .toList();
-        return ResponseEntity.ok(transferResponses);
+    public ResponseEntity<List<TransferResponse>> getAllTransfers(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        try {
+            return transferService.getTransfersPage(cursor, size).map(TransferResponse::new).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/admin/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTransfers(@RequestParam(defaultValue = "false") boolean gzip) {
+        return ExportService.ndjsonResponse(exportService.exportTransfers(gzip), gzip);
     }
     
     @GetMapping("/admin/recent")
@@ -187,6 +301,8 @@ public class TransferController {
             return ResponseEntity.ok(new TransferResponse(transfer));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (TransferStateMachine.StateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
@@ -201,6 +317,8 @@ public class TransferController {
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (TransferStateMachine.StateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
@@ -213,20 +331,46 @@ public class TransferController {
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (TransferStateMachine.StateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
     // REVERSE operations
     @PostMapping("/{id}/reverse")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<TransferResponse> reverseTransfer(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<TransferResponse>> reverseTransfer(@PathVariable Long id) {
+        TransferService.AccountPair accounts = transferService.findAccountPair(id)
+                .orElse(new TransferService.AccountPair(null, null));
+        return accountPartitionExecutor.submit(accounts.sourceAccountId(), accounts.destinationAccountId(),
+                        () -> new TransferResponse(transferService.reverseTransfer(id)))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(response);
+                    }
+                    if (error instanceof TransferStateMachine.StateConflictException) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                    }
+                    return error instanceof IllegalArgumentException
+                            ? ResponseEntity.badRequest().build()
+                            : ResponseEntity.internalServerError().build();
+                });
+    }
+    
+    // SETTLEMENT operations
+    @PostMapping("/admin/settlement")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runSettlement() {
         try {
-            Transfer transfer = transferService.reverseTransfer(id);
-            return ResponseEntity.ok(new TransferResponse(transfer));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            return settlementService.settle(LocalDateTime.now())
+                    .<ResponseEntity<?>>map(batch -> ResponseEntity.ok(Map.of(
+                            "batchId", batch.getId(),
+                            "transferCount", batch.getTransferCount(),
+                            "totalAmount", batch.getTotalAmount(),
+                            "fileName", batch.getFileName())))
+                    .orElse(ResponseEntity.noContent().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
         }
     }
     
@@ -239,10 +383,29 @@ public class TransferController {
             return ResponseEntity.ok(new TransferResponse(transfer));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (TransferStateMachine.StateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
     
     // SEARCH and FILTER operations
+    @GetMapping("/filter")
+    public ResponseEntity<List<TransferResponse>> filterTransfers(@ModelAttribute TransferFilter filter,
+                                                                 @RequestParam(required = false) String sort,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            return transferService.filterTransfers(filter, user.getId(), sort, cursor, size)
+                    .map(TransferResponse::new).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/search/type")
     public ResponseEntity<List<TransferResponse>> getTransfersByType(@RequestParam Transfer.TransferType type,
                                                                     Authentication authentication) {
@@ -304,7 +467,37 @@ public class TransferController {
         return ResponseEntity.ok(transferResponses);
     }
     
+    @GetMapping("/search/description")
+    public ResponseEntity<List<TransferResponse>> searchTransfersByDescription(@RequestParam String description,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(required = false) Integer size,
+                                                                              Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal = (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        User user = userPrincipal.getUser();
+        
+        try {
+            return transferService.searchTransfersByDescription(user.getId(), description, cursor, size)
+                    .map(TransferResponse::new).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     // Admin search operations
+    @GetMapping("/admin/filter")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TransferResponse>> filterTransfersAdmin(@ModelAttribute TransferFilter filter,
+                                                                      @RequestParam(required = false) String sort,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer size) {
+        try {
+            return transferService.filterTransfers(filter, null, sort, cursor, size)
+                    .map(TransferResponse::new).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/admin/search/type")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<TransferResponse>> getTransfersByTypeAdmin(@RequestParam Transfer.TransferType type) {
@@ -324,4 +517,17 @@ public class TransferController {
                 .toList();
         return ResponseEntity.ok(transferResponses);
     }
+    
+    @GetMapping("/admin/search/description")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TransferResponse>> searchTransfersByDescriptionAdmin(@RequestParam String description,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(required = false) Integer size) {
+        try {
+            return transferService.searchTransfersByDescriptionAdmin(description, cursor, size)
+                    .map(TransferResponse::new).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
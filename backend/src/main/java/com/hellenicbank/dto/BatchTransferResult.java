@@ -0,0 +1,38 @@
+package com.hellenicbank.dto;
+
+public class BatchTransferResult {
+    
+    private int index;
+    private boolean success;
+    private TransferResponse transfer;
+    private String error;
+    
+    public static BatchTransferResult success(int index, TransferResponse transfer) {
+        BatchTransferResult result = new BatchTransferResult();
+        result.index = index;
+        result.success = true;
+        result.transfer = transfer;
+        return result;
+    }
+    
+    public static BatchTransferResult failure(int index, String error) {
+        BatchTransferResult result = new BatchTransferResult();
+        result.index = index;
+        result.success = false;
+        result.error = error;
+        return result;
+    }
+    
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+    
+    public TransferResponse getTransfer() { return transfer; }
+    public void setTransfer(TransferResponse transfer) { this.transfer = transfer; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,42 @@
+package com.hellenicbank.dto;
+
+import com.hellenicbank.entity.Card;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of GET /api/cards/filter. Every predicate is optional; the ones given
+ * are combined with AND.
+ */
+public class CardFilter {
+    private Card.CardType type;
+    private Card.CardStatus status;
+    private Long accountId;
+    private Long userId; // admin only; users always see their own cards
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime startDate;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime endDate;
+    
+    // Getters and Setters
+    public Card.CardType getType() { return type; }
+    public void setType(Card.CardType type) { this.type = type; }
+    
+    public Card.CardStatus getStatus() { return status; }
+    public void setStatus(Card.CardStatus status) { this.status = status; }
+    
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+    
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+}
@@ -0,0 +1,43 @@
+package com.hellenicbank.dto;
+
+import com.hellenicbank.entity.Loan;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of GET /api/loans/filter. Every predicate is optional; the ones given
+ * are combined with AND.
+ */
+public class LoanFilter {
+    private Loan.LoanStatus status;
+    private Long userId; // admin only; users always see their own loans
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime startDate;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime endDate;
+    
+    // Getters and Setters
+    public Loan.LoanStatus getStatus() { return status; }
+    public void setStatus(Loan.LoanStatus status) { this.status = status; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public BigDecimal getMinAmount() { return minAmount; }
+    public void setMinAmount(BigDecimal minAmount) { this.minAmount = minAmount; }
+    
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+    
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+    
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+}
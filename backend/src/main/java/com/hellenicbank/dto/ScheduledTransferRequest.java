@@ -0,0 +1,66 @@
+package com.hellenicbank.dto;
+
+import com.hellenicbank.entity.ScheduledTransfer;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class ScheduledTransferRequest {
+    
+    @NotNull(message = "From account ID is required")
+    private Long fromAccountId;
+    
+    @NotBlank(message = "To IBAN is required")
+    private String toIban;
+    
+    // For transfers to the user's own accounts
+    private Long toAccountId;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+    
+    private String description;
+    
+    private String category;
+    
+    // ONCE for a future-dated transfer, otherwise a standing order
+    private ScheduledTransfer.Frequency frequency = ScheduledTransfer.Frequency.ONCE;
+    
+    @NotNull(message = "Execution time is required")
+    private LocalDateTime executeAt;
+    
+    // Optional last day of a standing order
+    private LocalDateTime endAt;
+    
+    // Getters and Setters
+    public Long getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
+    
+    public String getToIban() { return toIban; }
+    public void setToIban(String toIban) { this.toIban = toIban; }
+    
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public ScheduledTransfer.Frequency getFrequency() { return frequency; }
+    public void setFrequency(ScheduledTransfer.Frequency frequency) { this.frequency = frequency; }
+    
+    public LocalDateTime getExecuteAt() { return executeAt; }
+    public void setExecuteAt(LocalDateTime executeAt) { this.executeAt = executeAt; }
+    
+    public LocalDateTime getEndAt() { return endAt; }
+    public void setEndAt(LocalDateTime endAt) { this.endAt = endAt; }
+}
@@ -0,0 +1,94 @@
+package com.hellenicbank.dto;
+
+import com.hellenicbank.entity.ScheduledTransfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class ScheduledTransferResponse {
+    
+    private Long id;
+    private Long fromAccountId;
+    private String toIban;
+    private Long toAccountId;
+    private BigDecimal amount;
+    private String description;
+    private String category;
+    private ScheduledTransfer.Frequency frequency;
+    private LocalDateTime executeAt;
+    private LocalDateTime endAt;
+    private Integer executionCount;
+    private Long lastTransferId;
+    private String lastError;
+    private ScheduledTransfer.ScheduleStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    public ScheduledTransferResponse(ScheduledTransfer scheduled) {
+        this.id = scheduled.getId();
+        this.fromAccountId = scheduled.getFromAccount().getId();
+        this.toIban = scheduled.getToIban();
+        this.toAccountId = scheduled.getToAccountId();
+        this.amount = scheduled.getAmount();
+        this.description = scheduled.getDescription();
+        this.category = scheduled.getCategory();
+        this.frequency = scheduled.getFrequency();
+        this.executeAt = scheduled.getExecuteAt();
+        this.endAt = scheduled.getEndAt();
+        this.executionCount = scheduled.getExecutionCount();
+        this.lastTransferId = scheduled.getLastTransferId();
+        this.lastError = scheduled.getLastError();
+        this.status = scheduled.getStatus();
+        this.createdAt = scheduled.getCreatedAt();
+        this.updatedAt = scheduled.getUpdatedAt();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(Long fromAccountId) { this.fromAccountId = fromAccountId; }
+    
+    public String getToIban() { return toIban; }
+    public void setToIban(String toIban) { this.toIban = toIban; }
+    
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public ScheduledTransfer.Frequency getFrequency() { return frequency; }
+    public void setFrequency(ScheduledTransfer.Frequency frequency) { this.frequency = frequency; }
+    
+    public LocalDateTime getExecuteAt() { return executeAt; }
+    public void setExecuteAt(LocalDateTime executeAt) { this.executeAt = executeAt; }
+    
+    public LocalDateTime getEndAt() { return endAt; }
+    public void setEndAt(LocalDateTime endAt) { this.endAt = endAt; }
+    
+    public Integer getExecutionCount() { return executionCount; }
+    public void setExecutionCount(Integer executionCount) { this.executionCount = executionCount; }
+    
+    public Long getLastTransferId() { return lastTransferId; }
+    public void setLastTransferId(Long lastTransferId) { this.lastTransferId = lastTransferId; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public ScheduledTransfer.ScheduleStatus getStatus() { return status; }
+    public void setStatus(ScheduledTransfer.ScheduleStatus status) { this.status = status; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,51 @@
+package com.hellenicbank.dto;
+
+import com.hellenicbank.entity.Transfer;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of GET /api/transfers/filter. Every predicate is optional; the ones given
+ * are combined with AND.
+ */
+public class TransferFilter {
+    private Transfer.TransferType type;
+    private Transfer.TransferStatus status;
+    private String category;
+    private Long accountId; // source account
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime startDate;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime endDate;
+    
+    // Getters and Setters
+    public Transfer.TransferType getType() { return type; }
+    public void setType(Transfer.TransferType type) { this.type = type; }
+    
+    public Transfer.TransferStatus getStatus() { return status; }
+    public void setStatus(Transfer.TransferStatus status) { this.status = status; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+    
+    public BigDecimal getMinAmount() { return minAmount; }
+    public void setMinAmount(BigDecimal minAmount) { this.minAmount = minAmount; }
+    
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+    
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+    
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+}
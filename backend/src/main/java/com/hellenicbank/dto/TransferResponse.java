@@ -13,6 +13,7 @@ public class TransferResponse {
     private Long fromAccountId;
     private String fromAccountIban;
     private String toIban;
+    private Long toAccountId;
     private BigDecimal amount;
     private BigDecimal fee;
     private BigDecimal totalAmount;
@@ -25,11 +26,15 @@ public class TransferResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // For deserializing stored idempotent responses
+    public TransferResponse() {}
+    
     public TransferResponse(Transfer transfer) {
         this.id = transfer.getId();
         this.fromAccountId = transfer.getFromAccount().getId();
         this.fromAccountIban = transfer.getFromAccount().getIban();
         this.toIban = transfer.getToIban();
+        this.toAccountId = transfer.getToAccountId();
         this.amount = transfer.getAmount();
         this.fee = transfer.getFee() != null ? transfer.getFee() : BigDecimal.ZERO;
         this.totalAmount = transfer.getTotalAmount() != null ? transfer.getTotalAmount() : transfer.getAmount();
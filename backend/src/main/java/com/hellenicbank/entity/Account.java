@@ -12,7 +12,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_user", columnList = "user_id"),
+        @Index(name = "idx_accounts_status", columnList = "status"),
+        @Index(name = "idx_accounts_created_at_id", columnList = "created_at, id")
+})
 public class Account {
     
     @Id
@@ -52,6 +56,16 @@ public class Account {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock guarding read-modify-write paths (admin edits); balance
+    // movements go through the conditional updates in AccountRepository
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
+    // Balance as last read from / written to the database, so direct edits can be journaled
+    @Transient
+    private BigDecimal persistedBalance;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -63,6 +77,13 @@ public class Account {
         updatedAt = LocalDateTime.now();
     }
     
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberBalance() {
+        persistedBalance = balance;
+    }
+    
     // Constructors
     public Account() {}
     
@@ -110,6 +131,15 @@ public class Account {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    // Difference between the in-memory balance and the last persisted one
+    public BigDecimal getUnpersistedBalanceChange() {
+        BigDecimal base = persistedBalance != null ? persistedBalance : BigDecimal.ZERO;
+        return balance != null ? balance.subtract(base) : BigDecimal.ZERO;
+    }
+    
     public enum AccountType {
         CHECKING, SAVINGS, LOAN
     }
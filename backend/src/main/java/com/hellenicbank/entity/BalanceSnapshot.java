@@ -0,0 +1,69 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * End-of-day balance of one account. Keyed on (account, day) with no surrogate id, so the
+ * rows of an account are stored together and a history range is one primary-key scan.
+ * Written by BalanceSnapshotService only.
+ */
+@Entity
+@Table(name = "balance_snapshots")
+@IdClass(BalanceSnapshot.Key.class)
+public class BalanceSnapshot {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Id
+    @Column(name = "snapshot_day")
+    private LocalDate snapshotDay;
+    
+    // Journal balance (CUSTOMER legs) at the end of the day
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+    
+    // Constructors
+    public BalanceSnapshot() {}
+    
+    // Getters and Setters
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+    
+    public LocalDate getSnapshotDay() { return snapshotDay; }
+    public void setSnapshotDay(LocalDate snapshotDay) { this.snapshotDay = snapshotDay; }
+    
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private Long accountId;
+        private LocalDate snapshotDay;
+        
+        public Key() {}
+        
+        public Key(Long accountId, LocalDate snapshotDay) {
+            this.accountId = accountId;
+            this.snapshotDay = snapshotDay;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(accountId, key.accountId)
+                    && Objects.equals(snapshotDay, key.snapshotDay);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, snapshotDay);
+        }
+    }
+}
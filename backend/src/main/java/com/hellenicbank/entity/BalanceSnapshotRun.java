@@ -0,0 +1,61 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the balance snapshot job for one day. Accounts up to completedUntil are done,
+ * so an interrupted run resumes from there; completedAt is set once every account is.
+ */
+@Entity
+@Table(name = "balance_snapshot_runs")
+public class BalanceSnapshotRun {
+    
+    @Id
+    @Column(name = "snapshot_day")
+    private LocalDate snapshotDay;
+    
+    // Highest account id when the run started; accounts opened later did not exist that day
+    @Column(name = "max_account_id", nullable = false)
+    private Long maxAccountId;
+    
+    @Column(name = "completed_until", nullable = false)
+    private Long completedUntil = 0L;
+    
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public BalanceSnapshotRun() {}
+    
+    public BalanceSnapshotRun(LocalDate snapshotDay, Long maxAccountId) {
+        this.snapshotDay = snapshotDay;
+        this.maxAccountId = maxAccountId;
+    }
+    
+    // Getters and Setters
+    public LocalDate getSnapshotDay() { return snapshotDay; }
+    public void setSnapshotDay(LocalDate snapshotDay) { this.snapshotDay = snapshotDay; }
+    
+    public Long getMaxAccountId() { return maxAccountId; }
+    public void setMaxAccountId(Long maxAccountId) { this.maxAccountId = maxAccountId; }
+    
+    public Long getCompletedUntil() { return completedUntil; }
+    public void setCompletedUntil(Long completedUntil) { this.completedUntil = completedUntil; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
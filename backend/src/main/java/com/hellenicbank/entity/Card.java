@@ -12,7 +12,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cards")
+@Table(name = "cards", indexes = {
+        @Index(name = "idx_cards_user", columnList = "user_id"),
+        @Index(name = "idx_cards_account", columnList = "account_id"),
+        @Index(name = "idx_cards_status", columnList = "status"),
+        @Index(name = "idx_cards_created_at_id", columnList = "created_at, id")
+})
 public class Card {
     
     @Id
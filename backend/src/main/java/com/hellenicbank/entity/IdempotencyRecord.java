@@ -0,0 +1,60 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response stored for an Idempotency-Key so client retries are replayed
+ * instead of creating the resource twice.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord {
+    
+    public static final int SCOPED_KEY_LENGTH = 300;
+    
+    // "<userId>:<Idempotency-Key>" - keys are scoped per user
+    @Id
+    @Column(name = "scoped_key", length = SCOPED_KEY_LENGTH)
+    private String scopedKey;
+    
+    // SHA-256 of the endpoint and request payload, to reject a key reused for a different request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    private String responseBody;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public IdempotencyRecord() {}
+    
+    public IdempotencyRecord(String scopedKey, String requestHash, String responseBody) {
+        this.scopedKey = scopedKey;
+        this.requestHash = requestHash;
+        this.responseBody = responseBody;
+    }
+    
+    // Getters and Setters
+    public String getScopedKey() { return scopedKey; }
+    public void setScopedKey(String scopedKey) { this.scopedKey = scopedKey; }
+    
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+    
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,104 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a balanced double-entry posting. Entries are insert-only;
+ * corrections are made by posting new, mirrored legs.
+ */
+@Entity
+@Immutable
+@Table(name = "journal_entries", indexes = {
+        @Index(name = "idx_journal_account_created_at", columnList = "account_id, created_at"),
+        @Index(name = "idx_journal_transfer", columnList = "transfer_id"),
+        @Index(name = "idx_journal_posting", columnList = "posting_id")
+})
+public class JournalEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entries_seq")
+    @SequenceGenerator(name = "journal_entries_seq", sequenceName = "journal_entries_seq", allocationSize = 50)
+    private Long id;
+    
+    // Groups the legs of one balanced posting
+    @NotNull
+    @Column(name = "posting_id", nullable = false, length = 36, updatable = false)
+    private String postingId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ledger_account", nullable = false, updatable = false)
+    private LedgerAccount ledgerAccount;
+    
+    // Customer account for CUSTOMER legs; plain id so deleting an account never rewrites history
+    @Column(name = "account_id", updatable = false)
+    private Long accountId;
+    
+    @Column(name = "transfer_id", updatable = false)
+    private Long transferId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private Direction direction;
+    
+    @DecimalMin(value = "0.0", inclusive = false)
+    @Column(nullable = false, precision = 15, scale = 2, updatable = false)
+    private BigDecimal amount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false)
+    private EntryType entryType;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public JournalEntry() {}
+    
+    public JournalEntry(String postingId, LedgerAccount ledgerAccount, Long accountId, Long transferId,
+                        Direction direction, BigDecimal amount, EntryType entryType) {
+        this.postingId = postingId;
+        this.ledgerAccount = ledgerAccount;
+        this.accountId = accountId;
+        this.transferId = transferId;
+        this.direction = direction;
+        this.amount = amount;
+        this.entryType = entryType;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getPostingId() { return postingId; }
+    public LedgerAccount getLedgerAccount() { return ledgerAccount; }
+    public Long getAccountId() { return accountId; }
+    public Long getTransferId() { return transferId; }
+    public Direction getDirection() { return direction; }
+    public BigDecimal getAmount() { return amount; }
+    public EntryType getEntryType() { return entryType; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    
+    public enum LedgerAccount {
+        CUSTOMER,          // An Aegis Bank account (accountId set)
+        EXTERNAL_CLEARING, // Money leaving to / arriving from other banks
+        FEE_INCOME,        // Transfer fees earned by the bank
+        ADJUSTMENT         // Counterpart of direct balance edits by admins
+    }
+    
+    public enum Direction {
+        DEBIT, CREDIT
+    }
+    
+    public enum EntryType {
+        TRANSFER, REVERSAL, ADJUSTMENT
+    }
+}
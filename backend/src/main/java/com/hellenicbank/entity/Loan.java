@@ -12,7 +12,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_user_created_at", columnList = "user_id, created_at"),
+        @Index(name = "idx_loans_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_loans_created_at_id", columnList = "created_at, id")
+})
 public class Loan {
     
     @Id
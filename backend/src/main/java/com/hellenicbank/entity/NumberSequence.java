@@ -0,0 +1,34 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Named counter from which callers reserve blocks of numbers (hi/lo allocation).
+ */
+@Entity
+@Table(name = "number_sequences")
+public class NumberSequence {
+    
+    @Id
+    @Column(length = 50)
+    private String name;
+    
+    // First value not yet handed out to any allocator
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+    
+    // Constructors
+    public NumberSequence() {}
+    
+    public NumberSequence(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+    
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+}
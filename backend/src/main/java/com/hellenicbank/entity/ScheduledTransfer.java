@@ -0,0 +1,179 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A future-dated transfer (frequency ONCE) or a standing order. Each occurrence creates a
+ * regular PENDING Transfer; execute_at always holds the next occurrence.
+ */
+@Entity
+@Table(name = "scheduled_transfers", indexes = {
+        @Index(name = "idx_scheduled_status_execute_at", columnList = "status, execute_at, id"),
+        @Index(name = "idx_scheduled_from_account", columnList = "from_account_id")
+})
+public class ScheduledTransfer {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_account_id", nullable = false)
+    private Account fromAccount;
+    
+    @NotBlank
+    @Column(name = "to_iban", nullable = false)
+    private String toIban;
+    
+    @Column(name = "to_account_id")
+    private Long toAccountId;
+    
+    @NotNull
+    @DecimalMin(value = "0.01")
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    private String description;
+    
+    private String category;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Frequency frequency = Frequency.ONCE;
+    
+    // First occurrence; later ones are computed from it so monthly orders do not drift (31st -> 28th -> 28th)
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+    
+    @Column(name = "execute_at", nullable = false)
+    private LocalDateTime executeAt;
+    
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+    
+    @Column(name = "execution_count", nullable = false)
+    private Integer executionCount = 0;
+    
+    @Column(name = "last_transfer_id")
+    private Long lastTransferId;
+    
+    @Column(name = "last_error")
+    private String lastError;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduleStatus status = ScheduleStatus.ACTIVE;
+    
+    // Guards against an occurrence being fired twice (other node, or a retry after restart)
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Moves to the next occurrence, or finishes the schedule when there is none.
+     */
+    public void advance() {
+        executionCount++;
+        LocalDateTime next = switch (frequency) {
+            case ONCE -> null;
+            case DAILY -> startAt.plusDays(executionCount);
+            case WEEKLY -> startAt.plusWeeks(executionCount);
+            case MONTHLY -> startAt.plusMonths(executionCount);
+        };
+        if (next == null || (endAt != null && next.isAfter(endAt))) {
+            status = ScheduleStatus.COMPLETED;
+        } else {
+            executeAt = next;
+        }
+    }
+    
+    // Constructors
+    public ScheduledTransfer() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Account getFromAccount() { return fromAccount; }
+    public void setFromAccount(Account fromAccount) { this.fromAccount = fromAccount; }
+    
+    public String getToIban() { return toIban; }
+    public void setToIban(String toIban) { this.toIban = toIban; }
+    
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public Frequency getFrequency() { return frequency; }
+    public void setFrequency(Frequency frequency) { this.frequency = frequency; }
+    
+    public LocalDateTime getStartAt() { return startAt; }
+    public void setStartAt(LocalDateTime startAt) { this.startAt = startAt; }
+    
+    public LocalDateTime getExecuteAt() { return executeAt; }
+    public void setExecuteAt(LocalDateTime executeAt) { this.executeAt = executeAt; }
+    
+    public LocalDateTime getEndAt() { return endAt; }
+    public void setEndAt(LocalDateTime endAt) { this.endAt = endAt; }
+    
+    public Integer getExecutionCount() { return executionCount; }
+    public void setExecutionCount(Integer executionCount) { this.executionCount = executionCount; }
+    
+    public Long getLastTransferId() { return lastTransferId; }
+    public void setLastTransferId(Long lastTransferId) { this.lastTransferId = lastTransferId; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public ScheduleStatus getStatus() { return status; }
+    public void setStatus(ScheduleStatus status) { this.status = status; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public enum Frequency {
+        ONCE, DAILY, WEEKLY, MONTHLY
+    }
+    
+    public enum ScheduleStatus {
+        ACTIVE, COMPLETED, FAILED, CANCELLED
+    }
+}
@@ -0,0 +1,65 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One outbound settlement file: the completed EXTERNAL transfers claimed at a cut-off.
+ */
+@Entity
+@Table(name = "settlement_batches")
+public class SettlementBatch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Transfers completed before this instant were eligible for the batch
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+    
+    @Column(name = "transfer_count", nullable = false)
+    private Long transferCount = 0L;
+    
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "file_name")
+    private String fileName;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public SettlementBatch() {}
+    
+    public SettlementBatch(LocalDateTime cutoff) {
+        this.cutoff = cutoff;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public LocalDateTime getCutoff() { return cutoff; }
+    public void setCutoff(LocalDateTime cutoff) { this.cutoff = cutoff; }
+    
+    public Long getTransferCount() { return transferCount; }
+    public void setTransferCount(Long transferCount) { this.transferCount = transferCount; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,75 @@
+package com.hellenicbank.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Completed outgoing transfers of one account, in one category, on one day (by the transfer's
+ * creation date): their count and amount. Written by SpendingRollupService with upserts only.
+ */
+@Entity
+@Table(name = "spending_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_spending_rollups_account_category_day",
+                columnNames = {"account_id", "category", "spend_day"}),
+        indexes = @Index(name = "idx_spending_rollups_user_day", columnList = "user_id, spend_day"))
+public class SpendingRollup {
+    
+    // Transfers without a category are rolled up under this name
+    public static final String UNCATEGORIZED = "UNCATEGORIZED";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(nullable = false)
+    private String category;
+    
+    @Column(name = "spend_day", nullable = false)
+    private LocalDate day;
+    
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "transfer_count", nullable = false)
+    private Long transferCount = 0L;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public SpendingRollup() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    
+    public Long getTransferCount() { return transferCount; }
+    public void setTransferCount(Long transferCount) { this.transferCount = transferCount; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -12,11 +12,21 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = {
+        @Index(name = "idx_transfers_from_account_created_at", columnList = "from_account_id, created_at"),
+        @Index(name = "idx_transfers_to_account_created_at", columnList = "to_account_id, created_at"),
+        @Index(name = "idx_transfers_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_transfers_created_at_id", columnList = "created_at, id"),
+        // Settlement claim (unsettled completed EXTERNAL transfers) and batch reads
+        @Index(name = "idx_transfers_settlement", columnList = "settlement_batch_id, type, status, updated_at")
+})
 public class Transfer {
     
+    // Pooled sequence (table-backed on MySQL) so Hibernate can batch inserts;
+    // IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_seq")
+    @SequenceGenerator(name = "transfers_seq", sequenceName = "transfers_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -28,6 +38,10 @@ public class Transfer {
     @Column(name = "to_iban", nullable = false)
     private String toIban;
     
+    // Destination account when toIban is local (null for EXTERNAL), so incoming transfers can be found by id
+    @Column(name = "to_account_id")
+    private Long toAccountId;
+    
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal amount;
@@ -58,6 +72,10 @@ public class Transfer {
     @Column(nullable = false)
     private TransferType type = TransferType.EXTERNAL;
     
+    // Set when a completed EXTERNAL transfer is included in an outbound settlement file
+    @Column(name = "settlement_batch_id")
+    private Long settlementBatchId;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -105,6 +123,9 @@ public class Transfer {
     public String getToIban() { return toIban; }
     public void setToIban(String toIban) { this.toIban = toIban; }
     
+    public Long getToAccountId() { return toAccountId; }
+    public void setToAccountId(Long toAccountId) { this.toAccountId = toAccountId; }
+    
     public BigDecimal getAmount() { return amount; }
     public void setAmount(BigDecimal amount) { this.amount = amount; }
     
@@ -132,6 +153,9 @@ public class Transfer {
     public TransferType getType() { return type; }
     public void setType(TransferType type) { this.type = type; }
     
+    public Long getSettlementBatchId() { return settlementBatchId; }
+    public void setSettlementBatchId(Long settlementBatchId) { this.settlementBatchId = settlementBatchId; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -2,18 +2,99 @@ package com.hellenicbank.repository;
 
 import com.hellenicbank.entity.Account;
 import com.hellenicbank.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+    // List reads fetch the owner with the accounts: AccountResponse needs its name and email
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Account> findAll();
+    
+    @EntityGraph(attributePaths = "user")
     List<Account> findByUser(User user);
+    @EntityGraph(attributePaths = "user")
     List<Account> findByUserId(Long userId);
     Optional<Account> findByIban(String iban);
+    
+    @Query("SELECT a.id FROM Account a WHERE a.iban = :iban")
+    Optional<Long> findIdByIban(@Param("iban") String iban);
+    
+    @Query("SELECT a.iban FROM Account a")
+    List<String> findAllIbans();
     boolean existsByIban(String iban);
+    @EntityGraph(attributePaths = "user")
     List<Account> findByStatus(Account.AccountStatus status);
+    
+    // Statistics reconcile (StatisticsService)
+    @Query("SELECT a.status, a.type, COUNT(a) FROM Account a GROUP BY a.status, a.type")
+    List<Object[]> countGroupedByStatusAndType();
+    
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Account a")
+    Long findMaxId();
+    
+    // SELECT ... FOR UPDATE in ascending id order, so concurrent lockers never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    // Atomic balance mutations - the database applies the delta, so concurrent
+    // transfers never overwrite each other with a stale balance
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1, a.updatedAt = :now " +
+           "WHERE a.id = :accountId AND a.balance >= :amount")
+    int debitIfSufficient(@Param("accountId") Long accountId,
+                          @Param("amount") BigDecimal amount,
+                          @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1, a.updatedAt = :now " +
+           "WHERE a.id = :accountId")
+    int credit(@Param("accountId") Long accountId,
+               @Param("amount") BigDecimal amount,
+               @Param("now") LocalDateTime now);
+    
+    // Only for rebuilding the projection from the journal (LedgerService)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = :balance, a.version = a.version + 1, a.updatedAt = :now " +
+           "WHERE a.id = :accountId")
+    int overwriteBalance(@Param("accountId") Long accountId,
+                         @Param("balance") BigDecimal balance,
+                         @Param("now") LocalDateTime now);
+    
+    @Query("SELECT a.id, a.balance FROM Account a")
+    List<Object[]> findAllBalances();
+    
+    // Whole-table export (ExportService): read-only rows streamed from the server
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Account a JOIN FETCH a.user ORDER BY a.id")
+    Stream<Account> streamAllForExport();
+    
+    // Keyset page on (createdAt, id); see KeysetPaging
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT a FROM Account a WHERE a.createdAt >= :afterTime " +
+           "AND (a.createdAt > :afterTime OR a.id > :afterId) ORDER BY a.createdAt, a.id")
+    List<Account> findPageAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, Pageable pageable);
 }
 
@@ -0,0 +1,47 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, BalanceSnapshot.Key> {
+    
+    // End-of-day balances of a range of accounts: the latest earlier snapshot plus the CUSTOMER legs
+    // posted since (all legs when there is none). Idempotent, so a chunk can simply be run again
+    @Modifying
+    @Query(value = "INSERT INTO balance_snapshots (account_id, snapshot_day, balance) " +
+                   "SELECT * FROM (SELECT a.id AS account_id, :day AS snapshot_day, COALESCE(p.balance, 0) + COALESCE((" +
+                   "SELECT SUM(CASE WHEN e.direction = 'CREDIT' THEN e.amount ELSE -e.amount END) FROM journal_entries e " +
+                   "WHERE e.account_id = a.id AND e.ledger_account = 'CUSTOMER' AND e.created_at < :dayEnd " +
+                   "AND (p.snapshot_day IS NULL OR e.created_at >= p.snapshot_day + INTERVAL 1 DAY)), 0) AS balance " +
+                   "FROM accounts a LEFT JOIN balance_snapshots p ON p.account_id = a.id AND p.snapshot_day = (" +
+                   "SELECT MAX(s.snapshot_day) FROM balance_snapshots s WHERE s.account_id = a.id AND s.snapshot_day < :day) " +
+                   "WHERE a.id BETWEEN :fromAccountId AND :toAccountId AND a.created_at < :dayEnd) AS snapshot " +
+                   "ON DUPLICATE KEY UPDATE balance = snapshot.balance",
+           nativeQuery = true)
+    int snapshotAccounts(@Param("day") LocalDate day,
+                         @Param("dayEnd") LocalDateTime dayEnd,
+                         @Param("fromAccountId") Long fromAccountId,
+                         @Param("toAccountId") Long toAccountId);
+    
+    // Nearest checkpoint for a point-in-time balance: a primary-key seek
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotDayLessThanOrderBySnapshotDayDesc(Long accountId, LocalDate day);
+    
+    // (day, balance) of one account, oldest first
+    @Query("SELECT s.snapshotDay, s.balance FROM BalanceSnapshot s " +
+           "WHERE s.accountId = :accountId AND s.snapshotDay BETWEEN :from AND :to ORDER BY s.snapshotDay")
+    List<Object[]> findHistory(@Param("accountId") Long accountId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
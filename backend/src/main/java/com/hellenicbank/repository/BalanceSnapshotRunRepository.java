@@ -0,0 +1,32 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.BalanceSnapshotRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRunRepository extends JpaRepository<BalanceSnapshotRun, LocalDate> {
+    
+    // The watermark only moves forward, whatever order the updates arrive in
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BalanceSnapshotRun r SET r.completedUntil = :completedUntil " +
+           "WHERE r.snapshotDay = :day AND r.completedUntil < :completedUntil")
+    int advance(@Param("day") LocalDate day, @Param("completedUntil") Long completedUntil);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BalanceSnapshotRun r SET r.completedAt = :now WHERE r.snapshotDay = :day")
+    int complete(@Param("day") LocalDate day, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT MIN(r.snapshotDay) FROM BalanceSnapshotRun r WHERE r.completedAt IS NULL")
+    Optional<LocalDate> findFirstUnfinishedDay();
+    
+    @Query("SELECT MAX(r.snapshotDay) FROM BalanceSnapshotRun r WHERE r.completedAt IS NOT NULL")
+    Optional<LocalDate> findLastCompletedDay();
+}
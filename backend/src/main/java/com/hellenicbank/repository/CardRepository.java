@@ -2,16 +2,42 @@ package com.hellenicbank.repository;
 
 import com.hellenicbank.entity.Card;
 import com.hellenicbank.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
     List<Card> findByUser(User user);
     List<Card> findByUserId(Long userId);
     List<Card> findByStatus(Card.CardStatus status);
     void deleteByAccountId(Long accountId);
+    
+    // Statistics reconcile (StatisticsService)
+    @Query("SELECT c.status, c.type, COUNT(c) FROM Card c GROUP BY c.status, c.type")
+    List<Object[]> countGroupedByStatusAndType();
+    
+    // Whole-table export (ExportService): read-only rows streamed from the server
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Card c JOIN FETCH c.user ORDER BY c.id")
+    Stream<Card> streamAllForExport();
+    
+    // Keyset page on (createdAt, id); see KeysetPaging
+    @Query("SELECT c FROM Card c WHERE c.createdAt >= :afterTime " +
+           "AND (c.createdAt > :afterTime OR c.id > :afterId) ORDER BY c.createdAt, c.id")
+    List<Card> findPageAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, Pageable pageable);
 }
 
@@ -0,0 +1,27 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    // Plain insert (never an update): a concurrent first execution fails with a duplicate key,
+    // which the repository translates to DataIntegrityViolationException
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (scoped_key, request_hash, response_body, created_at) " +
+                   "VALUES (:scopedKey, :requestHash, :responseBody, :createdAt)", nativeQuery = true)
+    int insert(@Param("scopedKey") String scopedKey,
+               @Param("requestHash") String requestHash,
+               @Param("responseBody") String responseBody,
+               @Param("createdAt") LocalDateTime createdAt);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
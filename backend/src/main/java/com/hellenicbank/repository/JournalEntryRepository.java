@@ -0,0 +1,39 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+    List<JournalEntry> findByTransferIdAndEntryType(Long transferId, JournalEntry.EntryType entryType);
+    
+    // Customer balances are credit-normal: credits add, debits subtract
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.direction = com.hellenicbank.entity.JournalEntry.Direction.CREDIT " +
+           "THEN e.amount ELSE -e.amount END), 0) " +
+           "FROM JournalEntry e WHERE e.ledgerAccount = com.hellenicbank.entity.JournalEntry.LedgerAccount.CUSTOMER " +
+           "AND e.accountId = :accountId")
+    BigDecimal sumBalanceByAccountId(@Param("accountId") Long accountId);
+    
+    // Net of the legs posted in [from, before): a range of idx_journal_account_created_at
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.direction = com.hellenicbank.entity.JournalEntry.Direction.CREDIT " +
+           "THEN e.amount ELSE -e.amount END), 0) " +
+           "FROM JournalEntry e WHERE e.ledgerAccount = com.hellenicbank.entity.JournalEntry.LedgerAccount.CUSTOMER " +
+           "AND e.accountId = :accountId AND e.createdAt >= :from AND e.createdAt < :before")
+    BigDecimal sumBalanceChangeByAccountId(@Param("accountId") Long accountId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("before") LocalDateTime before);
+    
+    // [accountId, journal balance] for every customer account in one grouped scan
+    @Query("SELECT e.accountId, SUM(CASE WHEN e.direction = com.hellenicbank.entity.JournalEntry.Direction.CREDIT " +
+           "THEN e.amount ELSE -e.amount END) " +
+           "FROM JournalEntry e WHERE e.ledgerAccount = com.hellenicbank.entity.JournalEntry.LedgerAccount.CUSTOMER " +
+           "GROUP BY e.accountId")
+    List<Object[]> sumBalancesByAccount();
+}
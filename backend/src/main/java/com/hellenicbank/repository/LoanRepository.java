@@ -2,60 +2,76 @@ package com.hellenicbank.repository;
 
 import com.hellenicbank.entity.Loan;
 import com.hellenicbank.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
+    // List reads fetch the borrower with the loans: LoanResponse needs its email
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Loan> findAll();
+    
     // Basic queries
+    @EntityGraph(attributePaths = "user")
     List<Loan> findByUser(User user);
+    @EntityGraph(attributePaths = "user")
     List<Loan> findByUserId(Long userId);
+    @EntityGraph(attributePaths = "user")
     List<Loan> findByStatus(Loan.LoanStatus status);
     
     // User-specific queries
+    @EntityGraph(attributePaths = "user")
     List<Loan> findByUserIdAndStatus(Long userId, Loan.LoanStatus status);
+    @EntityGraph(attributePaths = "user")
     List<Loan> findByUserIdOrderByCreatedAtDesc(Long userId);
     
     // Admin queries
+    @EntityGraph(attributePaths = "user")
     List<Loan> findByStatusOrderByCreatedAtDesc(Loan.LoanStatus status);
     
-    // Search and filter queries
-    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND l.principal BETWEEN :minAmount AND :maxAmount ORDER BY l.createdAt DESC")
-    List<Loan> findByUserIdAndPrincipalBetween(@Param("userId") Long userId, 
-                                               @Param("minAmount") BigDecimal minAmount, 
-                                               @Param("maxAmount") BigDecimal maxAmount);
-    
-    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND l.createdAt BETWEEN :startDate AND :endDate ORDER BY l.createdAt DESC")
-    List<Loan> findByUserIdAndCreatedAtBetween(@Param("userId") Long userId,
-                                               @Param("startDate") LocalDateTime startDate,
-                                               @Param("endDate") LocalDateTime endDate);
-    
-    @Query("SELECT l FROM Loan l WHERE l.user.id = :userId AND l.purpose LIKE %:purpose% ORDER BY l.createdAt DESC")
-    List<Loan> findByUserIdAndPurposeContaining(@Param("userId") Long userId, @Param("purpose") String purpose);
-    
-    // Admin search queries
-    @Query("SELECT l FROM Loan l WHERE l.principal BETWEEN :minAmount AND :maxAmount ORDER BY l.createdAt DESC")
-    List<Loan> findByPrincipalBetween(@Param("minAmount") BigDecimal minAmount, 
-                                      @Param("maxAmount") BigDecimal maxAmount);
+    // Full-text search on purpose (ft_loans_purpose), best match first; see FullTextSearch.
+    // Field filters (status, amount, dates) go through FilterSpecifications
+    @Query(value = "SELECT l.* FROM loans l WHERE l.user_id = :userId " +
+                   "AND MATCH(l.purpose) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(l.purpose) AGAINST (:query IN BOOLEAN MODE) DESC, l.id DESC " +
+                   "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Loan> searchByUserIdAndPurpose(@Param("userId") Long userId, @Param("query") String query,
+                                        @Param("limit") int limit, @Param("offset") long offset);
     
-    @Query("SELECT l FROM Loan l WHERE l.createdAt BETWEEN :startDate AND :endDate ORDER BY l.createdAt DESC")
-    List<Loan> findByCreatedAtBetween(@Param("startDate") LocalDateTime startDate,
-                                      @Param("endDate") LocalDateTime endDate);
+    @Query(value = "SELECT l.* FROM loans l WHERE MATCH(l.purpose) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(l.purpose) AGAINST (:query IN BOOLEAN MODE) DESC, l.id DESC " +
+                   "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Loan> searchByPurpose(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
     
-    @Query("SELECT l FROM Loan l WHERE l.purpose LIKE %:purpose% ORDER BY l.createdAt DESC")
-    List<Loan> findByPurposeContaining(@Param("purpose") String purpose);
+    // Statistics reconcile (StatisticsService): (status, count, principal) in one pass
+    @Query("SELECT l.status, COUNT(l), SUM(l.principal) FROM Loan l GROUP BY l.status")
+    List<Object[]> summarizeGroupedByStatus();
     
-    // Statistics queries
-    @Query("SELECT COUNT(l) FROM Loan l WHERE l.status = :status")
-    Long countByStatus(@Param("status") Loan.LoanStatus status);
+    // Whole-table export (ExportService): read-only rows streamed from the server
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Loan l JOIN FETCH l.user ORDER BY l.id")
+    Stream<Loan> streamAllForExport();
     
-    @Query("SELECT SUM(l.principal) FROM Loan l WHERE l.status = :status")
-    BigDecimal sumPrincipalByStatus(@Param("status") Loan.LoanStatus status);
+    // Keyset page on (createdAt, id); see KeysetPaging
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT l FROM Loan l WHERE l.createdAt >= :afterTime " +
+           "AND (l.createdAt > :afterTime OR l.id > :afterId) ORDER BY l.createdAt, l.id")
+    List<Loan> findPageAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, Pageable pageable);
 }
 
@@ -0,0 +1,25 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.NumberSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NumberSequenceRepository extends JpaRepository<NumberSequence, String> {
+    // Advances the counter, creating it (values start at 1) on first use. One statement, so a
+    // concurrent first use on another node just waits for the row lock and advances after it;
+    // the row stays locked until the (short) reserving transaction commits
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO number_sequences (name, next_value) VALUES (:name, 1 + :blockSize) " +
+                   "ON DUPLICATE KEY UPDATE next_value = number_sequences.next_value + :blockSize",
+           nativeQuery = true)
+    int reserve(@Param("name") String name, @Param("blockSize") long blockSize);
+    
+    @Query("SELECT s.nextValue FROM NumberSequence s WHERE s.name = :name")
+    Optional<Long> findNextValue(@Param("name") String name);
+}
@@ -0,0 +1,34 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.ScheduledTransfer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    @Query("SELECT s FROM ScheduledTransfer s WHERE s.fromAccount.user.id = :userId ORDER BY s.executeAt")
+    List<ScheduledTransfer> findByUserId(@Param("userId") Long userId);
+
+    // (id, execute_at) of active schedules due before `until`, keyset-paged on (execute_at, id)
+    @Query("SELECT s.id, s.executeAt FROM ScheduledTransfer s " +
+           "WHERE s.status = com.hellenicbank.entity.ScheduledTransfer.ScheduleStatus.ACTIVE " +
+           "AND s.executeAt < :until " +
+           "AND (s.executeAt > :afterTime OR (s.executeAt = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.executeAt, s.id")
+    List<Object[]> findDueWindow(@Param("afterTime") LocalDateTime afterTime,
+                                 @Param("afterId") Long afterId,
+                                 @Param("until") LocalDateTime until,
+                                 Pageable pageable);
+
+    // Source accounts are fetched with the schedules: firing needs their owners
+    @Query("SELECT s FROM ScheduledTransfer s JOIN FETCH s.fromAccount WHERE s.id IN :ids")
+    List<ScheduledTransfer> findAllWithAccountByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,72 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.entity.SpendingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SpendingRollupRepository extends JpaRepository<SpendingRollup, Long> {
+    
+    // Adds a delta (negative for reversals) to the day's row, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO spending_rollups (user_id, account_id, category, spend_day, total_amount, transfer_count, updated_at) " +
+                   "VALUES (:userId, :accountId, :category, :day, :amount, :count, :now) AS delta " +
+                   "ON DUPLICATE KEY UPDATE total_amount = spending_rollups.total_amount + delta.total_amount, " +
+                   "transfer_count = spending_rollups.transfer_count + delta.transfer_count, updated_at = delta.updated_at",
+           nativeQuery = true)
+    int addSpending(@Param("userId") Long userId,
+                    @Param("accountId") Long accountId,
+                    @Param("category") String category,
+                    @Param("day") LocalDate day,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") long count,
+                    @Param("now") LocalDateTime now);
+    
+    // Backfill: recompute the rollups of a range of source accounts from their completed transfers
+    @Modifying
+    @Query(value = "DELETE FROM spending_rollups WHERE account_id BETWEEN :fromAccountId AND :toAccountId", nativeQuery = true)
+    int deleteForAccounts(@Param("fromAccountId") Long fromAccountId, @Param("toAccountId") Long toAccountId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO spending_rollups (user_id, account_id, category, spend_day, total_amount, transfer_count, updated_at) " +
+                   "SELECT a.user_id, t.from_account_id, COALESCE(t.category, 'UNCATEGORIZED'), DATE(t.created_at), " +
+                   "SUM(t.amount), COUNT(*), :now " +
+                   "FROM transfers t JOIN accounts a ON a.id = t.from_account_id " +
+                   "WHERE t.status = 'COMPLETED' AND t.from_account_id BETWEEN :fromAccountId AND :toAccountId " +
+                   "GROUP BY a.user_id, t.from_account_id, COALESCE(t.category, 'UNCATEGORIZED'), DATE(t.created_at)",
+           nativeQuery = true)
+    int insertForAccounts(@Param("fromAccountId") Long fromAccountId, @Param("toAccountId") Long toAccountId,
+                          @Param("now") LocalDateTime now);
+    
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Account a")
+    Long findMaxAccountId();
+    
+    void deleteByAccountId(Long accountId);
+    
+    // Breakdowns: (category, amount, count) and (month, amount, count) for a user and date range
+    @Query("SELECT r.category, SUM(r.totalAmount), SUM(r.transferCount) FROM SpendingRollup r " +
+           "WHERE r.userId = :userId AND r.day BETWEEN :startDay AND :endDay " +
+           "AND (:accountId IS NULL OR r.accountId = :accountId) " +
+           "GROUP BY r.category HAVING SUM(r.transferCount) > 0 ORDER BY SUM(r.totalAmount) DESC")
+    List<Object[]> sumByCategory(@Param("userId") Long userId,
+                                 @Param("accountId") Long accountId,
+                                 @Param("startDay") LocalDate startDay,
+                                 @Param("endDay") LocalDate endDay);
+    
+    @Query("SELECT EXTRACT(MONTH FROM r.day), SUM(r.totalAmount), SUM(r.transferCount) FROM SpendingRollup r " +
+           "WHERE r.userId = :userId AND r.day BETWEEN :startDay AND :endDay " +
+           "AND (:accountId IS NULL OR r.accountId = :accountId) " +
+           "GROUP BY EXTRACT(MONTH FROM r.day) HAVING SUM(r.transferCount) > 0 ORDER BY EXTRACT(MONTH FROM r.day)")
+    List<Object[]> sumByMonth(@Param("userId") Long userId,
+                              @Param("accountId") Long accountId,
+                              @Param("startDay") LocalDate startDay,
+                              @Param("endDay") LocalDate endDay);
+}
@@ -2,71 +2,142 @@ package com.hellenicbank.repository;
 
 import com.hellenicbank.entity.Account;
 import com.hellenicbank.entity.Transfer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransferRepository extends JpaRepository<Transfer, Long> {
+public interface TransferRepository extends JpaRepository<Transfer, Long>, JpaSpecificationExecutor<Transfer> {
+    // List reads fetch the source account with the transfers: TransferResponse needs its IBAN
+    @Override
+    @EntityGraph(attributePaths = "fromAccount")
+    List<Transfer> findAll();
+    
+    @EntityGraph(attributePaths = "fromAccount")
     List<Transfer> findByFromAccount(Account account);
+    @EntityGraph(attributePaths = "fromAccount")
     List<Transfer> findByFromAccountUserId(Long userId);
+    @EntityGraph(attributePaths = "fromAccount")
     List<Transfer> findByStatus(Transfer.TransferStatus status);
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.user.id = :userId AND t.createdAt >= :startDate ORDER BY t.createdAt DESC")
-    List<Transfer> findRecentTransfersByUserId(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
+    // Guarded status transition (see TransferStateMachine); settled transfers are frozen
+    @Modifying
+    @Query("UPDATE Transfer t SET t.status = :to, t.updatedAt = :now " +
+           "WHERE t.id = :id AND t.status = :from AND t.settlementBatchId IS NULL")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("from") Transfer.TransferStatus from,
+                            @Param("to") Transfer.TransferStatus to,
+                            @Param("now") LocalDateTime now);
     
-    @Query("SELECT t FROM Transfer t WHERE t.createdAt >= :startDate ORDER BY t.createdAt DESC")
-    List<Transfer> findRecentTransfers(@Param("startDate") LocalDateTime startDate);
+    // Claims every unsettled completed EXTERNAL transfer before the cut-off for a settlement batch
+    @Modifying
+    @Query("UPDATE Transfer t SET t.settlementBatchId = :batchId " +
+           "WHERE t.type = com.hellenicbank.entity.Transfer.TransferType.EXTERNAL " +
+           "AND t.status = com.hellenicbank.entity.Transfer.TransferStatus.COMPLETED " +
+           "AND t.settlementBatchId IS NULL AND t.updatedAt < :cutoff")
+    int claimForSettlement(@Param("batchId") Long batchId, @Param("cutoff") LocalDateTime cutoff);
     
-    // CRUD and search methods
-    List<Transfer> findByTypeAndFromAccountUserId(Transfer.TransferType type, Long userId);
+    // Per destination bank (country, first four BBAN characters): count and sum of a settlement batch
+    @Query("SELECT SUBSTRING(t.toIban, 1, 2), SUBSTRING(t.toIban, 5, 4), COUNT(t), SUM(t.amount) FROM Transfer t " +
+           "WHERE t.settlementBatchId = :batchId " +
+           "GROUP BY SUBSTRING(t.toIban, 1, 2), SUBSTRING(t.toIban, 5, 4)")
+    List<Object[]> summarizeSettlementBatch(@Param("batchId") Long batchId);
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.user.id = :userId AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    List<Transfer> findByCreatedAtBetweenAndFromAccountUserId(@Param("startDate") LocalDateTime startDate, 
-                                                             @Param("endDate") LocalDateTime endDate, 
-                                                             @Param("userId") Long userId);
+    // Statistics reconcile (StatisticsService)
+    @Query("SELECT t.status, t.type, COUNT(t), SUM(t.amount) FROM Transfer t GROUP BY t.status, t.type")
+    List<Object[]> summarizeGroupedByStatusAndType();
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.user.id = :userId AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    List<Transfer> findByFromAccountUserIdAndCreatedAtBetween(@Param("userId") Long userId, 
-                                                             @Param("startDate") LocalDateTime startDate, 
-                                                             @Param("endDate") LocalDateTime endDate);
+    // Scalar rows (no managed entities) streamed from the server, grouped by destination bank:
+    // id, reference, toIban, amount, currency, description, debtor IBAN, debtor name
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT t.id, t.reference, t.toIban, t.amount, t.currency, t.description, a.iban, u.name " +
+           "FROM Transfer t JOIN t.fromAccount a JOIN a.user u WHERE t.settlementBatchId = :batchId " +
+           "ORDER BY SUBSTRING(t.toIban, 1, 2), SUBSTRING(t.toIban, 5, 4), t.id")
+    Stream<Object[]> streamSettlementLines(@Param("batchId") Long batchId);
     
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.user.id = :userId AND t.amount BETWEEN :minAmount AND :maxAmount ORDER BY t.createdAt DESC")
-    List<Transfer> findByAmountBetweenAndFromAccountUserId(@Param("minAmount") BigDecimal minAmount, 
-                                                          @Param("maxAmount") BigDecimal maxAmount, 
-                                                          @Param("userId") Long userId);
+    // Whole-table export (ExportService): read-only rows streamed from the server
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transfer t JOIN FETCH t.fromAccount ORDER BY t.id")
+    Stream<Transfer> streamAllForExport();
     
-    List<Transfer> findByCategoryAndFromAccountUserId(String category, Long userId);
+    // [source account id, destination account id, destination IBAN, type] for partition routing
+    @Query("SELECT t.fromAccount.id, t.toAccountId, t.toIban, t.type FROM Transfer t WHERE t.id = :id")
+    List<Object[]> findAccountRoutingById(@Param("id") Long id);
     
-    // Admin methods
-    List<Transfer> findByType(Transfer.TransferType type);
+    // Oldest-first (transfer id, source account id) pairs for the background processor
+    @Query("SELECT t.id, t.fromAccount.id FROM Transfer t WHERE t.status = :status ORDER BY t.createdAt, t.id")
+    List<Object[]> findIdAndSourceAccountByStatus(@Param("status") Transfer.TransferStatus status, Pageable pageable);
     
-    @Query("SELECT t FROM Transfer t WHERE t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    List<Transfer> findByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, 
-                                         @Param("endDate") LocalDateTime endDate);
+    @EntityGraph(attributePaths = "fromAccount")
+    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.user.id = :userId AND t.createdAt >= :startDate ORDER BY t.createdAt DESC")
+    List<Transfer> findRecentTransfersByUserId(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
     
-    @Query("SELECT t FROM Transfer t WHERE t.amount BETWEEN :minAmount AND :maxAmount ORDER BY t.createdAt DESC")
-    List<Transfer> findByAmountBetween(@Param("minAmount") BigDecimal minAmount, 
-                                      @Param("maxAmount") BigDecimal maxAmount);
+    @EntityGraph(attributePaths = "fromAccount")
+    @Query("SELECT t FROM Transfer t WHERE t.createdAt >= :startDate ORDER BY t.createdAt DESC")
+    List<Transfer> findRecentTransfers(@Param("startDate") LocalDateTime startDate);
+    
+    // Full-text search on description (ft_transfers_description), best match first; see FullTextSearch.
+    // Field filters (type, status, amount, dates...) go through FilterSpecifications.
+    // Only the ranked ids come back: entity graphs do not apply to native queries, so the rows
+    // are loaded with their source account through findAllWithFromAccountByIdIn
+    @Query(value = "SELECT t.id FROM transfers t JOIN accounts a ON a.id = t.from_account_id " +
+                   "WHERE a.user_id = :userId AND MATCH(t.description) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(t.description) AGAINST (:query IN BOOLEAN MODE) DESC, t.id DESC " +
+                   "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> searchIdsByUserIdAndDescription(@Param("userId") Long userId, @Param("query") String query,
+                                               @Param("limit") int limit, @Param("offset") long offset);
     
-    List<Transfer> findByCategory(String category);
+    @Query(value = "SELECT t.id FROM transfers t WHERE MATCH(t.description) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(t.description) AGAINST (:query IN BOOLEAN MODE) DESC, t.id DESC " +
+                   "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> searchIdsByDescription(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
+    
+    @EntityGraph(attributePaths = "fromAccount")
+    @Query("SELECT t FROM Transfer t WHERE t.id IN :ids")
+    List<Transfer> findAllWithFromAccountByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Keyset page on (createdAt, id); see KeysetPaging
+    @EntityGraph(attributePaths = "fromAccount")
+    @Query("SELECT t FROM Transfer t WHERE t.createdAt >= :afterTime " +
+           "AND (t.createdAt > :afterTime OR t.id > :afterId) ORDER BY t.createdAt, t.id")
+    List<Transfer> findPageAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, Pageable pageable);
     
     // Delete methods for account cleanup
     void deleteByFromAccountId(Long accountId);
     
     // New methods for enhanced account functionality
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.id = :accountId ORDER BY t.createdAt DESC")
-    List<Transfer> findByFromAccountIdOrToAccountId(@Param("accountId") Long accountId, @Param("accountId") Long accountId2);
-    
-    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.id = :accountId AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
-    List<Transfer> findByFromAccountIdOrToAccountIdAndCreatedAtBetween(@Param("accountId") Long accountId, 
-                                                                      @Param("accountId") Long accountId2,
-                                                                      @Param("startDate") LocalDateTime startDate, 
-                                                                      @Param("endDate") LocalDateTime endDate);
+    @EntityGraph(attributePaths = "fromAccount")
+    // Debits and credits of an account, newest first; each side is served by its (account, created_at) index
+    @Query("SELECT t FROM Transfer t WHERE t.fromAccount.id = :accountId OR t.toAccountId = :toAccountId " +
+           "ORDER BY t.createdAt DESC")
+    List<Transfer> findByFromAccountIdOrToAccountId(@Param("accountId") Long accountId, @Param("toAccountId") Long toAccountId);
+    
+    // Statement lines of an account, newest first, as scalar rows streamed from the server:
+    // createdAt, amount, description, status, reference
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT t.createdAt, t.amount, t.description, t.status, t.reference FROM Transfer t " +
+           "WHERE (t.fromAccount.id = :accountId OR t.toAccountId = :accountId) " +
+           "AND t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt DESC")
+    Stream<Object[]> streamStatementLines(@Param("accountId") Long accountId,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate);
 }
 
@@ -1,14 +1,28 @@
 package com.hellenicbank.repository;
 
 import com.hellenicbank.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    // Keyset page on (createdAt, id); see KeysetPaging
+    @Query("SELECT u FROM User u WHERE u.createdAt >= :afterTime " +
+           "AND (u.createdAt > :afterTime OR u.id > :afterId) ORDER BY u.createdAt, u.id")
+    List<User> findPageAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // Statistics reconcile (StatisticsService)
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countGroupedByRole();
 }
 
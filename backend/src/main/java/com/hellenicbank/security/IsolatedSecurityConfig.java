@@ -63,6 +63,7 @@ public class IsolatedSecurityConfig {
                 .requestMatchers("/api/loans/user/**").hasRole("ADMIN")
                 .requestMatchers("/api/transfers/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/transfers/user/**").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 
                 // USER MANAGEMENT ADMIN ENDPOINTS
                 .requestMatchers("/api/users").hasRole("ADMIN")
@@ -95,7 +96,8 @@ public class IsolatedSecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Next-Cursor",
+                "X-Opening-Balance", "X-Closing-Balance"));
         configuration.setMaxAge(3600L); // Cache preflight response for 1 hour
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
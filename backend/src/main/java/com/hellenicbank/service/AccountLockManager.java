@@ -0,0 +1,145 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account lock acquisition for balance-changing operations.
+ * Accounts are always locked in ascending id order: first on an in-JVM lock stripe,
+ * so contended accounts queue up in memory, then on the database row (SELECT ... FOR UPDATE).
+ * All locks are held until the surrounding transaction completes.
+ */
+@Component
+@Slf4j
+public class AccountLockManager {
+
+    private final AccountRepository accountRepository;
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    private final Timer waitTimer;
+    private final Counter timeoutCounter;
+
+    public AccountLockManager(AccountRepository accountRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${aegis.locks.stripes:256}") int stripeCount,
+                              @Value("${aegis.locks.timeout-ms:2000}") long timeoutMillis) {
+        this.accountRepository = accountRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.waitTimer = Timer.builder("aegis.account.lock.wait")
+                .description("Time spent waiting for account lock stripes")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("aegis.account.lock.timeouts")
+                .description("Account lock acquisitions that gave up after the timeout")
+                .register(meterRegistry);
+        Gauge.builder("aegis.account.lock.queued", this, AccountLockManager::queuedThreads)
+                .description("Threads currently queued on account lock stripes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Locks the given accounts (nulls and duplicates are ignored) until the current
+     * transaction completes and returns the freshly loaded rows in id order.
+     */
+    public List<Account> lockAccounts(Long... accountIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Account locks require an active transaction");
+        }
+
+        SortedSet<Long> ids = new TreeSet<>();
+        for (Long id : accountIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Two ids may share a stripe, so order by stripe index rather than by id
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long id : ids) {
+            stripeIndexes.add(stripeFor(id));
+        }
+
+        List<ReentrantLock> acquired = acquire(stripeIndexes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(acquired);
+            }
+        });
+
+        return accountRepository.findAllByIdForUpdate(ids);
+    }
+
+    private List<ReentrantLock> acquire(SortedSet<Integer> stripeIndexes) {
+        List<ReentrantLock> acquired = new ArrayList<>(stripeIndexes.size());
+        long start = System.nanoTime();
+        try {
+            for (Integer index : stripeIndexes) {
+                ReentrantLock lock = stripes[index];
+                long remaining = timeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (remaining <= 0 || !lock.tryLock(remaining, TimeUnit.MILLISECONDS)) {
+                    timeoutCounter.increment();
+                    throw new CannotAcquireLockException("Timed out waiting for account lock");
+                }
+                acquired.add(lock);
+            }
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(acquired);
+            throw new CannotAcquireLockException("Interrupted while waiting for account lock", e);
+        } catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+        acquired.clear();
+    }
+
+    private int stripeFor(Long accountId) {
+        int h = Objects.hashCode(accountId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, stripes.length);
+    }
+
+    private double queuedThreads() {
+        int queued = 0;
+        for (ReentrantLock lock : stripes) {
+            queued += lock.getQueueLength();
+        }
+        return queued;
+    }
+}
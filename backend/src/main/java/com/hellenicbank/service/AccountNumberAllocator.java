@@ -0,0 +1,82 @@
+package com.hellenicbank.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocates IBANs from blocks of account numbers reserved in the database (hi/lo).
+ * Each number is handed out once, so IBANs are unique by construction and, within
+ * a block, are produced without any database round trip.
+ */
+@Component
+@Slf4j
+public class AccountNumberAllocator {
+
+    static final String SEQUENCE_NAME = "account_number";
+
+    private static final String COUNTRY_CODE = "GR";
+    private static final String BANK_CODE = "1234";
+    private static final BigInteger NINETY_SEVEN = BigInteger.valueOf(97);
+
+    private final NumberSequenceService numberSequenceService;
+    private final int blockSize;
+
+    private long next;
+    private long limit;
+
+    public AccountNumberAllocator(NumberSequenceService numberSequenceService,
+                                  @Value("${aegis.account-numbers.block-size:100}") int blockSize) {
+        this.numberSequenceService = numberSequenceService;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public synchronized String nextIban() {
+        if (next >= limit) {
+            reserveBlock();
+        }
+        return toIban(next++);
+    }
+
+    public synchronized List<String> nextIbans(int count) {
+        List<String> ibans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ibans.add(nextIban());
+        }
+        return ibans;
+    }
+
+    private void reserveBlock() {
+        long start = numberSequenceService.reserveBlock(SEQUENCE_NAME, blockSize);
+        next = start;
+        limit = start + blockSize;
+        log.debug("Reserved account numbers {} - {}", start, limit - 1);
+    }
+
+    // Whether the IBAN has the shape of one issued here: GRkk + our bank code + 16 digits
+    static boolean isLocalIban(String iban) {
+        return iban.length() == COUNTRY_CODE.length() + 2 + BANK_CODE.length() + 16
+                && iban.startsWith(COUNTRY_CODE)
+                && iban.startsWith(BANK_CODE, COUNTRY_CODE.length() + 2);
+    }
+
+    // GRkk + bank code + 16-digit account number, with ISO 13616 mod-97 check digits
+    static String toIban(long accountNumber) {
+        String bban = BANK_CODE + String.format("%016d", accountNumber);
+        return COUNTRY_CODE + checkDigits(bban) + bban;
+    }
+
+    static String checkDigits(String bban) {
+        // Move the country code and "00" to the end, letters become 10..35, then 98 - (n mod 97)
+        StringBuilder digits = new StringBuilder(bban.length() + 6);
+        for (char c : (bban + COUNTRY_CODE + "00").toCharArray()) {
+            digits.append(Character.getNumericValue(c));
+        }
+        int remainder = new BigInteger(digits.toString()).mod(NINETY_SEVEN).intValue();
+        return String.format("%02d", 98 - remainder);
+    }
+}
@@ -0,0 +1,201 @@
+package com.hellenicbank.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optional single-writer mode for balance-changing operations.
+ * Each account id hashes to one partition backed by a single thread, so operations on the
+ * same account run one after another in memory instead of contending on its row lock.
+ * Operations on two accounts (processing or reversing a local transfer) hold both partitions:
+ * the lower-numbered one is parked while the task runs on the higher-numbered one. Partitions
+ * are always taken in that order, so two-account hand-offs cannot wait on each other in a cycle.
+ * Background batches (TransferProcessingEngine) are routed by source account only; their
+ * destination credits still rely on the row lock.
+ * When disabled (the default) tasks run inline on the caller's thread.
+ */
+@Component
+@Slf4j
+public class AccountPartitionExecutor {
+
+    private final boolean enabled;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ThreadPoolExecutor[] partitions;
+    private final Timer[] waitTimers;
+    private final Timer[] runTimers;
+    private final Counter[] rejectedCounters;
+
+    public AccountPartitionExecutor(EntityManagerFactory entityManagerFactory,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${aegis.partitions.enabled:false}") boolean enabled,
+                                    @Value("${aegis.partitions.count:16}") int partitionCount,
+                                    @Value("${aegis.partitions.queue-capacity:1000}") int queueCapacity) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+
+        int count = enabled ? Math.max(1, partitionCount) : 0;
+        this.partitions = new ThreadPoolExecutor[count];
+        this.waitTimers = new Timer[count];
+        this.runTimers = new Timer[count];
+        this.rejectedCounters = new Counter[count];
+
+        for (int i = 0; i < count; i++) {
+            String name = "account-partition-" + i;
+            String tag = String.valueOf(i);
+            ThreadPoolExecutor partition = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            partitions[i] = partition;
+
+            Gauge.builder("aegis.partitions.queue.depth", partition, executor -> executor.getQueue().size())
+                    .description("Operations waiting on an account partition")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("aegis.partitions.completed", partition, ThreadPoolExecutor::getCompletedTaskCount)
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            waitTimers[i] = Timer.builder("aegis.partitions.wait")
+                    .description("Time an operation spent queued before its partition picked it up")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            runTimers[i] = Timer.builder("aegis.partitions.run")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            rejectedCounters[i] = Counter.builder("aegis.partitions.rejected")
+                    .description("Operations refused because the partition queue was full")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+        }
+
+        if (enabled) {
+            log.info("Account partition executor enabled with {} partitions", count);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the task on the partition owning the given account. The task should perform its own
+     * transaction (i.e. call a transactional service method); it runs with an open EntityManager,
+     * as a web request does, so the returned entities can still be mapped after commit.
+     */
+    public <T> CompletableFuture<T> submit(Long accountId, Supplier<T> task) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        int index = partitionFor(accountId);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            partitions[index].execute(() -> {
+                waitTimers[index].record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                runTimers[index].record(() -> run(task, future));
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounters[index].increment();
+            future.completeExceptionally(new TaskRejectedException("Account partition " + index + " is saturated", e));
+        }
+        return future;
+    }
+
+    /**
+     * Runs the task with both accounts' partitions held; same as submit(accountId, task) when
+     * the second account is null or hashes to the same partition.
+     */
+    public <T> CompletableFuture<T> submit(Long accountId, Long otherAccountId, Supplier<T> task) {
+        if (!enabled || otherAccountId == null || partitionFor(accountId) == partitionFor(otherAccountId)) {
+            return submit(accountId, task);
+        }
+
+        int first = Math.min(partitionFor(accountId), partitionFor(otherAccountId));
+        int second = Math.max(partitionFor(accountId), partitionFor(otherAccountId));
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            partitions[first].execute(() -> {
+                waitTimers[first].record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                // Phase two: park this partition until the task has run on the second one
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                try {
+                    partitions[second].execute(() -> {
+                        try {
+                            runTimers[second].record(() -> run(task, future));
+                        } finally {
+                            done.complete(null);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    rejectedCounters[second].increment();
+                    future.completeExceptionally(new TaskRejectedException("Account partition " + second + " is saturated", e));
+                    return;
+                }
+                done.join();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounters[first].increment();
+            future.completeExceptionally(new TaskRejectedException("Account partition " + first + " is saturated", e));
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            future.complete(task.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            EntityManagerFactoryUtils.closeEntityManager(entityManager);
+        }
+    }
+
+    private int partitionFor(Long accountId) {
+        int h = Objects.hashCode(accountId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, partitions.length);
+    }
+}
@@ -1,9 +1,12 @@
 package com.hellenicbank.service;
 
+import com.hellenicbank.dto.CursorPage;
 import com.hellenicbank.entity.Account;
 import com.hellenicbank.entity.User;
 import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.BalanceSnapshotRepository;
 import com.hellenicbank.repository.CardRepository;
+import com.hellenicbank.repository.SpendingRollupRepository;
 import com.hellenicbank.repository.TransferRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,16 +16,24 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class AccountService {
     
+    // Lower bound for summing a journal with no snapshot to start from
+    private static final LocalDateTime JOURNAL_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
     private final AccountRepository accountRepository;
     private final CardRepository cardRepository;
     private final TransferRepository transferRepository;
+    private final LedgerService ledgerService;
+    private final IbanDirectory ibanDirectory;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final KeysetPaging keysetPaging;
+    private final SpendingRollupRepository spendingRollupRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
     
     public Account createAccount(User user, Account.AccountType type) {
         return createAccount(user, type, null);
@@ -33,20 +44,17 @@ public class AccountService {
         account.setUser(user);
         account.setType(type);
         
-        // Generate unique IBAN
-        String iban;
-        do {
-            iban = generateIban();
-        } while (accountRepository.existsByIban(iban));
-        
-        account.setIban(iban);
+        // Unique by construction, no existence check needed
+        account.setIban(accountNumberAllocator.nextIban());
         account.setBalance(BigDecimal.ZERO);
         account.setCurrency("EUR");
         // Set status to PENDING for admin approval
         account.setStatus(Account.AccountStatus.PENDING);
         account.setNickname(nickname);
         
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        ibanDirectory.register(saved.getIban(), saved.getId());
+        return saved;
     }
     
     public Account createAccountAdmin(User user, Account.AccountType type, String nickname) {
@@ -54,20 +62,17 @@ public class AccountService {
         account.setUser(user);
         account.setType(type);
         
-        // Generate unique IBAN
-        String iban;
-        do {
-            iban = generateIban();
-        } while (accountRepository.existsByIban(iban));
-        
-        account.setIban(iban);
+        // Unique by construction, no existence check needed
+        account.setIban(accountNumberAllocator.nextIban());
         account.setBalance(BigDecimal.ZERO);
         account.setCurrency("EUR");
         // Admin can create accounts directly as ACTIVE
         account.setStatus(Account.AccountStatus.ACTIVE);
         account.setNickname(nickname);
         
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        ibanDirectory.register(saved.getIban(), saved.getId());
+        return saved;
     }
     
     public List<Account> getUserAccounts(Long userId) {
@@ -132,19 +137,43 @@ public class AccountService {
         return accountRepository.findAll();
     }
     
+    public CursorPage<Account> getAccountsPage(String cursor, Integer size) {
+        return keysetPaging.page(cursor, size, accountRepository::findPageAfter, Account::getCreatedAt, Account::getId);
+    }
+    
     public Optional<Account> findById(Long id) {
         return accountRepository.findById(id);
     }
     
     public Optional<Account> findByIban(String iban) {
-        return accountRepository.findByIban(iban);
+        return ibanDirectory.resolveAccountId(iban).flatMap(accountRepository::findById);
+    }
+    
+    /**
+     * Balance of an account at an instant: the nearest end-of-day snapshot before it plus the
+     * journal legs posted between the end of that day and the instant. Both are index ranges,
+     * so the cost is a seek and the postings of less than a day (while snapshots are current).
+     * Without an earlier snapshot the account's whole journal up to the instant is summed.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(Long accountId, LocalDateTime at) {
+        return balanceSnapshotRepository
+                .findFirstByAccountIdAndSnapshotDayLessThanOrderBySnapshotDayDesc(accountId, at.toLocalDate())
+                .map(snapshot -> snapshot.getBalance().add(ledgerService.getJournalBalanceChange(
+                        accountId, snapshot.getSnapshotDay().plusDays(1).atStartOfDay(), at)))
+                .orElseGet(() -> ledgerService.getJournalBalanceChange(accountId, JOURNAL_START, at));
     }
     
     public Account updateAccount(Account account) {
+        // Direct balance edits (admin updates, opening balances) still go through the journal
+        if (account.getId() != null) {
+            ledgerService.recordAdjustment(account.getId(), account.getUnpersistedBalanceChange());
+        }
         return accountRepository.save(account);
     }
     
     public void deleteAccount(Long id) {
+        accountRepository.findById(id).ifPresent(account -> ibanDirectory.evict(account.getIban()));
         accountRepository.deleteById(id);
     }
     
@@ -154,10 +183,13 @@ public class AccountService {
         
         // Then delete all related transfers (both from and to this account)
         transferRepository.deleteByFromAccountId(id);
+        spendingRollupRepository.deleteByAccountId(id);
+        balanceSnapshotRepository.deleteByAccountId(id);
         // Note: We can't easily delete transfers TO this account without knowing the account ID
         // For now, we'll leave incoming transfers as they reference the IBAN, not the account ID
         
         // Finally delete the account
+        accountRepository.findById(id).ifPresent(account -> ibanDirectory.evict(account.getIban()));
         accountRepository.deleteById(id);
     }
     
@@ -174,13 +206,6 @@ public class AccountService {
                 .orElse(false);
     }
     
-    public void updateBalance(Long accountId, BigDecimal newBalance) {
-        accountRepository.findById(accountId).ifPresent(account -> {
-            account.setBalance(newBalance);
-            accountRepository.save(account);
-        });
-    }
-    
     @Transactional
     public Account cancelAccount(Long id) {
         Account account = accountRepository.findById(id)
@@ -200,27 +225,9 @@ public class AccountService {
         // Set status to cancelled
         account.setStatus(Account.AccountStatus.CANCELLED);
         account.setUpdatedAt(LocalDateTime.now());
+        ibanDirectory.evict(account.getIban());
         
         return accountRepository.save(account);
     }
-    
-    
-    private String generateIban() {
-        // Generate a simple IBAN for demo purposes
-        // In production, this should follow proper IBAN generation rules
-        Random random = new Random();
-        StringBuilder iban = new StringBuilder("GR");
-        
-        // Add check digits
-        iban.append(String.format("%02d", random.nextInt(100)));
-        
-        // Add bank code
-        iban.append("1234");
-        
-        // Add account number
-        iban.append(String.format("%016d", random.nextLong(10000000000000000L)));
-        
-        return iban.toString();
-    }
 }
 
@@ -0,0 +1,67 @@
+package com.hellenicbank.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the end-of-day balance snapshots, shortly after midnight so postings made just before
+ * it have committed. Days missed while the application was down are caught up after startup.
+ * Runs go to a thread of their own: a catch-up over several days of a large account base takes
+ * long, and on Spring's single scheduling thread it would hold up transfer polling, the
+ * standing-order window load and the other scheduled jobs. Snapshot rows are upserts, so nodes
+ * catching up the same day at once only repeat work.
+ */
+@Component
+@ConditionalOnProperty(name = "aegis.balance-snapshots.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BalanceSnapshotScheduler {
+
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "balance-snapshot-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A trigger while a run is still going is dropped; that run already covers every finished day
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BalanceSnapshotScheduler(BalanceSnapshotService balanceSnapshotService) {
+        this.balanceSnapshotService = balanceSnapshotService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        snapshot();
+    }
+
+    @Scheduled(cron = "${aegis.balance-snapshots.cron:0 15 0 * * *}")
+    public void snapshot() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Balance snapshot still running, skipping this trigger");
+            return;
+        }
+        runner.execute(() -> {
+            try {
+                balanceSnapshotService.catchUp();
+            } catch (RuntimeException e) {
+                log.error("Balance snapshot failed, it resumes on the next run: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,219 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.BalanceSnapshotRun;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.BalanceSnapshotRepository;
+import com.hellenicbank.repository.BalanceSnapshotRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * End-of-day balance snapshots and the balance history served from them.
+ * A day is snapshotted in account id ranges, several in parallel, each range with one
+ * INSERT ... SELECT that carries the previous snapshot forward with the day's journal legs.
+ * The run row keeps a watermark below which every range is done, so a run interrupted by a
+ * restart or a failure resumes there instead of starting over.
+ */
+@Service
+@Slf4j
+public class BalanceSnapshotService {
+    
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final BalanceSnapshotRunRepository balanceSnapshotRunRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkAccounts;
+    private final int parallelism;
+    private final int maxHistoryDays;
+    
+    public BalanceSnapshotService(BalanceSnapshotRepository balanceSnapshotRepository,
+                                  BalanceSnapshotRunRepository balanceSnapshotRunRepository,
+                                  AccountRepository accountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${aegis.balance-snapshots.chunk-accounts:1000}") int chunkAccounts,
+                                  @Value("${aegis.balance-snapshots.parallelism:4}") int parallelism,
+                                  @Value("${aegis.balance-snapshots.max-history-days:3660}") int maxHistoryDays) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.balanceSnapshotRunRepository = balanceSnapshotRunRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkAccounts = Math.max(1, chunkAccounts);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxHistoryDays = Math.max(1, maxHistoryDays);
+    }
+    
+    /**
+     * Snapshots every day that is over and not done yet: an unfinished run first, then the days
+     * after the last completed one. The very first run only covers yesterday.
+     */
+    public void catchUp() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate day = balanceSnapshotRunRepository.findFirstUnfinishedDay()
+                .or(() -> balanceSnapshotRunRepository.findLastCompletedDay().map(last -> last.plusDays(1)))
+                .orElse(yesterday);
+        for (; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            snapshot(day);
+        }
+    }
+    
+    /**
+     * Snapshots (or resumes) one past day. Returns the run; a completed run is returned as is.
+     */
+    public BalanceSnapshotRun snapshot(LocalDate day) {
+        if (!day.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Only days that are over can be snapshotted");
+        }
+        BalanceSnapshotRun run = transactionTemplate.execute(status -> balanceSnapshotRunRepository.findById(day)
+                .orElseGet(() -> balanceSnapshotRunRepository.save(new BalanceSnapshotRun(day, accountRepository.findMaxId()))));
+        if (run.getCompletedAt() != null) {
+            return run;
+        }
+        
+        long start = run.getCompletedUntil() + 1;
+        long maxAccountId = run.getMaxAccountId();
+        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+        // Chunk starts still running (or failed); the watermark stops just below the lowest of them
+        TreeSet<Long> open = new TreeSet<>();
+        for (long from = start; from <= maxAccountId; from += chunkAccounts) {
+            open.add(from);
+        }
+        int chunks = open.size();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "balance-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        try {
+            for (long from = start; from <= maxAccountId; from += chunkAccounts) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + chunkAccounts - 1, maxAccountId);
+                futures.add(pool.submit(() -> {
+                    snapshotChunk(day, dayEnd, chunkFrom, chunkTo);
+                    long completedUntil;
+                    synchronized (open) {
+                        open.remove(chunkFrom);
+                        completedUntil = open.isEmpty() ? maxAccountId : open.first() - 1;
+                    }
+                    transactionTemplate.executeWithoutResult(status ->
+                            balanceSnapshotRunRepository.advance(day, completedUntil));
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Balance snapshot of " + day + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Balance snapshot of " + day + " failed, it resumes on the next run", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> balanceSnapshotRunRepository.complete(day, LocalDateTime.now()));
+        log.info("Snapshotted balances of {} for accounts {}..{} in {} chunks", day, start, maxAccountId, chunks);
+        return balanceSnapshotRunRepository.findById(day).orElse(run);
+    }
+    
+    private void snapshotChunk(LocalDate day, LocalDateTime dayEnd, long fromAccountId, long toAccountId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        balanceSnapshotRepository.snapshotAccounts(day, dayEnd, fromAccountId, toAccountId));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                // The statement is idempotent, so a deadlock victim just runs again
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Balance history of an account between two days, one point per day, week or month
+     * (chosen from the range length when interval is null). A point carries the closing
+     * balance of its period and the lowest and highest end-of-day balance within it. When the
+     * range reaches today, today's point is the current balance.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBalanceHistory(Long accountId, BigDecimal currentBalance,
+                                                 LocalDate from, LocalDate to, String interval) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = to != null ? to : today;
+        LocalDate start = from != null ? from : end.minusDays(89);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        long days = ChronoUnit.DAYS.between(start, end) + 1;
+        if (days > maxHistoryDays) {
+            throw new IllegalArgumentException("Range cannot exceed " + maxHistoryDays + " days");
+        }
+        String resolution = interval != null ? interval.toUpperCase() : days <= 92 ? "DAY" : days <= 731 ? "WEEK" : "MONTH";
+        UnaryOperator<LocalDate> period = switch (resolution) {
+            case "DAY" -> d -> d;
+            case "WEEK" -> d -> d.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "MONTH" -> d -> d.withDayOfMonth(1);
+            default -> throw new IllegalArgumentException("Interval must be DAY, WEEK or MONTH");
+        };
+        
+        List<Object[]> rows = new ArrayList<>(balanceSnapshotRepository.findHistory(accountId, start, end));
+        if (!end.isBefore(today)) {
+            rows.add(new Object[] {today, currentBalance});
+        }
+        
+        // Rows are in day order, so each period's points are contiguous
+        List<Map<String, Object>> points = new ArrayList<>();
+        LocalDate currentPeriod = null;
+        Map<String, Object> point = null;
+        for (Object[] row : rows) {
+            LocalDate day = (LocalDate) row[0];
+            BigDecimal balance = (BigDecimal) row[1];
+            if (!period.apply(day).equals(currentPeriod)) {
+                currentPeriod = period.apply(day);
+                point = new LinkedHashMap<>();
+                point.put("date", day);
+                point.put("balance", balance);
+                point.put("low", balance);
+                point.put("high", balance);
+                points.add(point);
+            }
+            point.put("date", day);
+            point.put("balance", balance);
+            point.put("low", balance.min((BigDecimal) point.get("low")));
+            point.put("high", balance.max((BigDecimal) point.get("high")));
+        }
+        
+        Map<String, Object> history = new LinkedHashMap<>();
+        history.put("accountId", accountId);
+        history.put("from", start);
+        history.put("to", end);
+        history.put("interval", resolution);
+        history.put("points", points);
+        return history;
+    }
+}
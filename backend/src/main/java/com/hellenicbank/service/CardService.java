@@ -1,8 +1,10 @@
 package com.hellenicbank.service;
 
+import com.hellenicbank.dto.CardFilter;
 import com.hellenicbank.dto.CardRequest;
 import com.hellenicbank.dto.CardResponse;
 import com.hellenicbank.dto.CardStatusUpdateRequest;
+import com.hellenicbank.dto.CursorPage;
 import com.hellenicbank.entity.Account;
 import com.hellenicbank.entity.Card;
 import com.hellenicbank.entity.User;
@@ -27,8 +29,13 @@ import java.util.stream.Collectors;
 @Transactional
 public class CardService {
     
+    // Sort keys of GET /api/cards/filter
+    private static final List<KeysetPaging.SortKey<Card, ?>> FILTER_SORT_KEYS = List.of(
+            new KeysetPaging.SortKey<Card, LocalDateTime>("createdAt", LocalDateTime::parse, Card::getCreatedAt));
+    
     private final CardRepository cardRepository;
     private final AccountRepository accountRepository;
+    private final KeysetPaging keysetPaging;
     
     public List<CardResponse> getCardsByUser(User user) {
         List<Card> cards = cardRepository.findByUser(user);
@@ -51,6 +58,20 @@ public class CardService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPage<CardResponse> getCardsPage(String cursor, Integer size) {
+        return keysetPaging.page(cursor, size, cardRepository::findPageAfter, Card::getCreatedAt, Card::getId)
+                .map(CardResponse::new);
+    }
+    
+    /**
+     * Any combination of filters as one keyset-paginated query. userId limits it to that
+     * user's cards; null (admin) means all cards, optionally narrowed by filter.userId.
+     */
+    public CursorPage<CardResponse> filterCards(CardFilter filter, Long userId, String sort, String cursor, Integer size) {
+        return keysetPaging.page(cardRepository, FilterSpecifications.cards(filter, userId), sort,
+                FILTER_SORT_KEYS, Card::getId, cursor, size).map(CardResponse::new);
+    }
+    
     public Optional<CardResponse> getCardById(Long id) {
         return cardRepository.findById(id)
                 .map(CardResponse::new);
@@ -0,0 +1,117 @@
+package com.hellenicbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hellenicbank.dto.AccountResponse;
+import com.hellenicbank.dto.CardResponse;
+import com.hellenicbank.dto.LoanResponse;
+import com.hellenicbank.dto.TransferResponse;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.CardRepository;
+import com.hellenicbank.repository.LoanRepository;
+import com.hellenicbank.repository.TransferRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-table NDJSON dumps for reconciliation.
+ * Rows are streamed from the database inside a read-only transaction on the response thread,
+ * written out one JSON line at a time and detached right away, so heap use does not depend
+ * on the table size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final CardRepository cardRepository;
+    private final LoanRepository loanRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    
+    // The associations fetched with each row are dropped every this many rows
+    @Value("${aegis.export.clear-interval:1000}")
+    private int clearInterval;
+    
+    public StreamingResponseBody exportTransfers(boolean gzip) {
+        return export(transferRepository::streamAllForExport, TransferResponse::new, gzip);
+    }
+    
+    public StreamingResponseBody exportAccounts(boolean gzip) {
+        return export(accountRepository::streamAllForExport, AccountResponse::new, gzip);
+    }
+    
+    public StreamingResponseBody exportCards(boolean gzip) {
+        return export(cardRepository::streamAllForExport, CardResponse::new, gzip);
+    }
+    
+    public StreamingResponseBody exportLoans(boolean gzip) {
+        return export(loanRepository::streamAllForExport, LoanResponse::new, gzip);
+    }
+    
+    /**
+     * Wraps an export as an NDJSON response; gzip is sent as Content-Encoding so HTTP clients
+     * decompress it transparently.
+     */
+    public static ResponseEntity<StreamingResponseBody> ndjsonResponse(StreamingResponseBody body, boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
+    private <E> StreamingResponseBody export(Supplier<Stream<E>> query, Function<E, ?> mapper, boolean gzip) {
+        ObjectWriter writer = objectMapper.writer();
+        return responseBody -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(responseBody, BUFFER_SIZE) : null;
+            OutputStream out = new BufferedOutputStream(compressed != null ? compressed : responseBody, BUFFER_SIZE);
+            
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<E> rows = query.get()) {
+                    int written = 0;
+                    for (E row : (Iterable<E>) rows::iterator) {
+                        out.write(writer.writeValueAsBytes(mapper.apply(row)));
+                        out.write('\n');
+                        entityManager.detach(row);
+                        if (++written % clearInterval == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            
+            out.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+    }
+}
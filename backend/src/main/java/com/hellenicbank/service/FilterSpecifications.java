@@ -0,0 +1,106 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.dto.CardFilter;
+import com.hellenicbank.dto.LoanFilter;
+import com.hellenicbank.dto.TransferFilter;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.Card;
+import com.hellenicbank.entity.Loan;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the filter DTOs into one JPA specification per resource. Only the predicates that
+ * were given end up in the WHERE clause, as plain equality and range conditions on indexed
+ * columns, so any combination runs as a single query instead of one per filter.
+ */
+public final class FilterSpecifications {
+    
+    private FilterSpecifications() {}
+    
+    /**
+     * Transfers sent from the user's accounts (all transfers when userId is null).
+     */
+    public static Specification<Transfer> transfers(TransferFilter filter, Long userId) {
+        return (root, query, cb) -> {
+            // TransferResponse reads the source account, so it comes in the same query
+            From<?, Account> account = fetch(root, query, "fromAccount");
+            List<Predicate> predicates = new ArrayList<>();
+            equal(predicates, cb, account.get("user").get("id"), userId);
+            equal(predicates, cb, account.get("id"), filter.getAccountId());
+            equal(predicates, cb, root.get("type"), filter.getType());
+            equal(predicates, cb, root.get("status"), filter.getStatus());
+            equal(predicates, cb, root.get("category"), filter.getCategory());
+            range(predicates, cb, root.get("amount"), filter.getMinAmount(), filter.getMaxAmount());
+            range(predicates, cb, root.get("createdAt"), filter.getStartDate(), filter.getEndDate());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+    
+    /**
+     * The user's loans; for admins (userId null) optionally narrowed by filter.userId.
+     */
+    public static Specification<Loan> loans(LoanFilter filter, Long userId) {
+        return (root, query, cb) -> {
+            // LoanResponse reads the borrower's email
+            From<?, User> user = fetch(root, query, "user");
+            List<Predicate> predicates = new ArrayList<>();
+            equal(predicates, cb, user.get("id"), userId != null ? userId : filter.getUserId());
+            equal(predicates, cb, root.get("status"), filter.getStatus());
+            range(predicates, cb, root.get("principal"), filter.getMinAmount(), filter.getMaxAmount());
+            range(predicates, cb, root.get("createdAt"), filter.getStartDate(), filter.getEndDate());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+    
+    /**
+     * The user's cards; for admins (userId null) optionally narrowed by filter.userId.
+     */
+    public static Specification<Card> cards(CardFilter filter, Long userId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            equal(predicates, cb, root.get("user").get("id"), userId != null ? userId : filter.getUserId());
+            equal(predicates, cb, root.get("account").get("id"), filter.getAccountId());
+            equal(predicates, cb, root.get("type"), filter.getType());
+            equal(predicates, cb, root.get("status"), filter.getStatus());
+            range(predicates, cb, root.get("createdAt"), filter.getStartDate(), filter.getEndDate());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+    
+    // Fetch join for entity queries; a plain join when Spring Data derives a count query
+    @SuppressWarnings("unchecked")
+    private static <X, Y> From<?, Y> fetch(From<?, X> root, CriteriaQuery<?> query, String attribute) {
+        Class<?> resultType = query.getResultType();
+        if (resultType == Long.class || resultType == long.class) {
+            return root.join(attribute);
+        }
+        return (From<?, Y>) root.fetch(attribute);
+    }
+    
+    private static void equal(List<Predicate> predicates, CriteriaBuilder cb, Path<?> path, Object value) {
+        if (value != null) {
+            predicates.add(cb.equal(path, value));
+        }
+    }
+    
+    // Inclusive on both ends, like the BETWEEN queries it replaces
+    private static <Y extends Comparable<? super Y>> void range(List<Predicate> predicates, CriteriaBuilder cb,
+                                                                Path<Y> path, Y min, Y max) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, min));
+        }
+        if (max != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, max));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.dto.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Ranked full-text search over the MySQL FULLTEXT indexes (loan purpose, transfer description).
+ * Free text is turned into a boolean-mode query where every word is required and matched as a
+ * prefix ("car rep" finds "car repair"). Words InnoDB never indexes (shorter than
+ * innodb_ft_min_token_size, or on its default stopword list) are dropped, since a required term
+ * that is not in the index would match nothing. Rows come back by relevance, so the cursor for
+ * the next page is the offset into that ranking rather than a (created_at, id) key.
+ */
+@Component
+public class FullTextSearch {
+    
+    // Boolean-mode operators are stripped by splitting on anything that is not a letter or digit
+    private static final String NON_WORD = "[^\\p{L}\\p{N}]+";
+    
+    // INFORMATION_SCHEMA.INNODB_FT_DEFAULT_STOPWORD
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "about", "an", "are", "as", "at", "be", "by", "com", "de", "en", "for", "from", "how",
+            "i", "in", "is", "it", "la", "of", "on", "or", "that", "the", "this", "to", "was", "what",
+            "when", "where", "who", "will", "with", "und", "www");
+    
+    private final int defaultSize;
+    private final int maxSize;
+    private final int maxTerms;
+    private final int minTokenSize;
+    
+    public FullTextSearch(@Value("${aegis.search.default-size:20}") int defaultSize,
+                          @Value("${aegis.search.max-size:100}") int maxSize,
+                          @Value("${aegis.search.max-terms:8}") int maxTerms,
+                          @Value("${aegis.search.min-token-size:3}") int minTokenSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.defaultSize = Math.min(Math.max(1, defaultSize), this.maxSize);
+        this.maxTerms = Math.max(1, maxTerms);
+        this.minTokenSize = Math.max(1, minTokenSize);
+    }
+    
+    /**
+     * Reads the page of matches after the cursor (the first page when it is null). One extra
+     * row is fetched to tell whether another page follows.
+     */
+    public <E> CursorPage<E> search(String text, String cursor, Integer size, SearchQuery<E> query) {
+        String booleanQuery = toBooleanQuery(text);
+        int pageSize = size == null ? defaultSize : Math.min(Math.max(1, size), maxSize);
+        long offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                offset = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        List<E> rows = query.find(booleanQuery, pageSize + 1, offset);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        String next = String.valueOf(offset + pageSize);
+        return new CursorPage<>(rows.subList(0, pageSize),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(next.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * "Repair of the car, urgent!" -> "+repair* +car* +urgent*"
+     */
+    String toBooleanQuery(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split(NON_WORD)) {
+                if (word.length() >= minTokenSize && !STOPWORDS.contains(word) && terms.size() < maxTerms) {
+                    terms.add("+" + word + "*");
+                }
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search text must contain at least one searchable word");
+        }
+        return String.join(" ", terms);
+    }
+    
+    /**
+     * Matches for a boolean-mode query, best first, limited to one page.
+     */
+    @FunctionalInterface
+    public interface SearchQuery<E> {
+        List<E> find(String booleanQuery, int limit, long offset);
+    }
+}
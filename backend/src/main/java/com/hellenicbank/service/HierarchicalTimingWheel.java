@@ -0,0 +1,128 @@
+package com.hellenicbank.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel (as in Kafka's purgatory).
+ * The lowest wheel has tickMs-wide buckets; items further out than one rotation go to an
+ * overflow wheel whose tick is the whole lower rotation, and so on. Adding is O(1); only
+ * buckets that actually hold items are visited when the clock advances. Not thread-safe.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final List<Bucket<T>> buckets;
+    // Shared by all levels: non-empty buckets ordered by expiration
+    private final PriorityQueue<Bucket<T>> expiringBuckets;
+    private long currentTime;
+    private HierarchicalTimingWheel<T> overflowWheel;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        this(tickMs, wheelSize, startMs, new PriorityQueue<>((a, b) -> Long.compare(a.expiration, b.expiration)));
+    }
+
+    private HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs, PriorityQueue<Bucket<T>> expiringBuckets) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.expiringBuckets = expiringBuckets;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new Bucket<>());
+        }
+    }
+
+    /**
+     * Schedules the item. Expirations are rounded up to the next tick so an item never fires
+     * early. Returns false, without storing it, if the item is already due.
+     */
+    public boolean add(T item, long expirationMs) {
+        long rounded = expirationMs % tickMs == 0 ? expirationMs : expirationMs - (expirationMs % tickMs) + tickMs;
+        if (!addEntry(new Entry<>(item, rounded))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the clock to nowMs and returns every item that has become due, cascading items
+     * from the overflow wheels down as their buckets come into range.
+     */
+    public List<T> advance(long nowMs) {
+        List<T> due = new ArrayList<>();
+        while (!expiringBuckets.isEmpty() && expiringBuckets.peek().expiration <= nowMs) {
+            Bucket<T> bucket = expiringBuckets.poll();
+            advanceClock(bucket.expiration);
+            for (Entry<T> entry : bucket.flush()) {
+                if (!addEntry(entry)) {
+                    size--;
+                    due.add(entry.item);
+                }
+            }
+        }
+        advanceClock(nowMs);
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean addEntry(Entry<T> entry) {
+        if (entry.expiration < currentTime + tickMs) {
+            return false;
+        }
+        if (entry.expiration < currentTime + interval) {
+            long virtualId = entry.expiration / tickMs;
+            Bucket<T> bucket = buckets.get((int) (virtualId % wheelSize));
+            bucket.entries.add(entry);
+            // A bucket is reused once per rotation; (re)queue it when it starts a new one
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                expiringBuckets.add(bucket);
+            }
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new HierarchicalTimingWheel<>(interval, wheelSize, currentTime, expiringBuckets);
+        }
+        return overflowWheel.addEntry(entry);
+    }
+
+    private void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTime);
+            }
+        }
+    }
+
+    private record Entry<T>(T item, long expiration) {}
+
+    private static final class Bucket<T> {
+        private List<Entry<T>> entries = new ArrayList<>();
+        private long expiration = -1;
+
+        boolean setExpiration(long expirationMs) {
+            if (expiration == expirationMs) {
+                return false;
+            }
+            expiration = expirationMs;
+            return true;
+        }
+
+        List<Entry<T>> flush() {
+            List<Entry<T>> flushed = entries;
+            entries = new ArrayList<>();
+            expiration = -1;
+            return flushed;
+        }
+    }
+}
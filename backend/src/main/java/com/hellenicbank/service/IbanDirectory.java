@@ -0,0 +1,239 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * IBAN to account id resolution.
+ * IBANs without our country and bank code (AccountNumberAllocator issues every local one) are
+ * external and rejected without a query. For IBANs with our bank code, Bloom filter hits are
+ * served from a bounded LRU cache and fall back to an id-only query. A miss on such an IBAN
+ * skips the cache but is still checked with the id-only query: the filter knows nothing of
+ * accounts created on another node until the next rebuild, and treating one as external would
+ * route money to external clearing.
+ */
+@Component
+@Slf4j
+public class IbanDirectory {
+
+    private final AccountRepository accountRepository;
+    private final int expectedIbans;
+    private final double falsePositiveRate;
+    private final Map<String, Long> cache;
+
+    private volatile BloomFilter filter;
+    // Filter being rebuilt; registrations go to both until it is swapped in
+    private volatile BloomFilter pending;
+
+    private final Counter foreignRejects;
+    private final Counter bloomRejects;
+    private final Counter staleRejects;
+    private final Counter cacheHits;
+    private final Counter databaseHits;
+    private final Counter databaseMisses;
+
+    public IbanDirectory(AccountRepository accountRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${aegis.iban-cache.size:10000}") int cacheSize,
+                         @Value("${aegis.iban-cache.expected-ibans:100000}") int expectedIbans,
+                         @Value("${aegis.iban-cache.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.accountRepository = accountRepository;
+        this.expectedIbans = Math.max(1, expectedIbans);
+        this.falsePositiveRate = falsePositiveRate;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        this.foreignRejects = lookupCounter(meterRegistry, "foreign_reject");
+        // Filter misses with our bank code; confirmed by the id-only query
+        this.bloomRejects = lookupCounter(meterRegistry, "bloom_reject");
+        this.staleRejects = lookupCounter(meterRegistry, "bloom_stale");
+        this.cacheHits = lookupCounter(meterRegistry, "cache_hit");
+        this.databaseHits = lookupCounter(meterRegistry, "db_hit");
+        this.databaseMisses = lookupCounter(meterRegistry, "db_miss");
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * Returns the id of the local account with this IBAN, or empty for IBANs that belong to another bank.
+     */
+    public Optional<Long> resolveAccountId(String iban) {
+        if (iban == null) {
+            return Optional.empty();
+        }
+        if (!AccountNumberAllocator.isLocalIban(iban)) {
+            foreignRejects.increment();
+            return Optional.empty();
+        }
+        if (!filter.mightContain(iban)) {
+            Optional<Long> unknown = accountRepository.findIdByIban(iban);
+            if (unknown.isPresent()) {
+                // Created on another node since the last rebuild: learn it now
+                staleRejects.increment();
+                filter.put(iban);
+                cache.put(iban, unknown.get());
+            } else {
+                bloomRejects.increment();
+            }
+            return unknown;
+        }
+
+        Long accountId = cache.get(iban);
+        if (accountId != null) {
+            cacheHits.increment();
+            return Optional.of(accountId);
+        }
+
+        Optional<Long> found = accountRepository.findIdByIban(iban);
+        if (found.isPresent()) {
+            databaseHits.increment();
+            cache.put(iban, found.get());
+        } else {
+            // Bloom false positive, or an account that has since been deleted
+            databaseMisses.increment();
+        }
+        return found;
+    }
+
+    // Called when an account is created; applied once the transaction commits, so a rolled-back
+    // create leaves no cached id pointing nowhere
+    public void register(String iban, Long accountId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(iban, accountId);
+                }
+            });
+        } else {
+            add(iban, accountId);
+        }
+    }
+
+    private void add(String iban, Long accountId) {
+        filter.put(iban);
+        BloomFilter rebuilding = pending;
+        if (rebuilding != null) {
+            rebuilding.put(iban);
+        }
+        cache.put(iban, accountId);
+    }
+
+    // Called when an account is cancelled or deleted; applied once the transaction commits
+    public void evict(String iban) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(iban);
+                }
+            });
+        } else {
+            cache.remove(iban);
+        }
+    }
+
+    /**
+     * Rebuilds the Bloom filter from the accounts table. Bloom filters cannot forget, so this
+     * drops deleted IBANs and resizes the filter as the number of accounts grows.
+     */
+    @Scheduled(fixedDelayString = "${aegis.iban-cache.rebuild-interval-ms:3600000}",
+               initialDelayString = "${aegis.iban-cache.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long count = accountRepository.count();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedIbans, count * 2), falsePositiveRate);
+        pending = rebuilt;
+        try {
+            List<String> ibans = accountRepository.findAllIbans();
+            ibans.forEach(rebuilt::put);
+            filter = rebuilt;
+            log.debug("IBAN Bloom filter rebuilt with {} IBANs", ibans.size());
+        } finally {
+            pending = null;
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("aegis.iban.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Lock-free Bloom filter using double hashing over a 64-bit FNV-1a hash
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(index);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(index, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
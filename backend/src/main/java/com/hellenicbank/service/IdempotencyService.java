@@ -0,0 +1,153 @@
+package com.hellenicbank.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hellenicbank.entity.IdempotencyRecord;
+import com.hellenicbank.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for create endpoints.
+ * Replays are served from a bounded in-memory LRU, falling back to a primary-key read of
+ * the idempotency_keys table (a plain consistent read, no row locks). The first execution
+ * stores its response in the same transaction that creates the resource, so a concurrent
+ * duplicate fails on the primary key and rolls back instead of creating a second row.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final long retentionHours;
+    private final Map<String, IdempotencyRecord> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${aegis.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${aegis.idempotency.retention-hours:24}") long retentionHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.retentionHours = retentionHours;
+        // Access-ordered LinkedHashMap: O(1) get/put, evicts the least recently used entry
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs the action once per (user, key). A retry with the same key and request returns the
+     * stored response; the same key with a different request is rejected with IllegalStateException.
+     * Without a key the action simply runs; a blank key, or one too long to store, is rejected with
+     * IllegalArgumentException before anything is looked up.
+     */
+    @Transactional
+    public <T> T execute(Long userId, String key, String operation, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank()) {
+            throw new IllegalArgumentException("Idempotency-Key must not be blank");
+        }
+
+        String scopedKey = userId + ":" + key;
+        if (scopedKey.length() > IdempotencyRecord.SCOPED_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key is too long");
+        }
+        String requestHash = hash(operation + ":" + toJson(request));
+
+        IdempotencyRecord existing = cache.get(scopedKey);
+        if (existing == null) {
+            existing = idempotencyRecordRepository.findById(scopedKey).orElse(null);
+        }
+        if (existing != null) {
+            cacheAfterCommit(scopedKey, existing);
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new IllegalStateException("Idempotency-Key was already used for a different request");
+            }
+            return fromJson(existing.getResponseBody(), responseType);
+        }
+
+        T response = action.get();
+
+        IdempotencyRecord record = new IdempotencyRecord(scopedKey, requestHash, toJson(response));
+        record.setCreatedAt(LocalDateTime.now());
+        idempotencyRecordRepository.insert(record.getScopedKey(), record.getRequestHash(),
+                record.getResponseBody(), record.getCreatedAt());
+        cacheAfterCommit(scopedKey, record);
+        return response;
+    }
+
+    // Only a committed response may be replayed: a rolled-back one never created the resource
+    private void cacheAfterCommit(String scopedKey, IdempotencyRecord record) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(scopedKey, record);
+                }
+            });
+        } else {
+            cache.put(scopedKey, record);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${aegis.idempotency.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int deleted = idempotencyRecordRepository.deleteByCreatedAtBefore(cutoff);
+        synchronized (cache) {
+            cache.values().removeIf(record -> record.getCreatedAt().isBefore(cutoff));
+        }
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value != null ? value : new HashMap<>());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize idempotent request", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
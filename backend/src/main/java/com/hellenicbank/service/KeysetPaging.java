@@ -0,0 +1,150 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.dto.CursorPage;
+import jakarta.persistence.criteria.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination on (created_at, id) for the admin list endpoints.
+ * A page starts strictly after the last row of the previous one and is read through the
+ * (created_at, id) index, so a deep page costs the same as the first (OFFSET would scan and
+ * discard every row before it). The cursor is an opaque encoding of that last row's key.
+ */
+@Component
+public class KeysetPaging {
+    
+    // Before any created_at; the first page starts here
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final int defaultSize;
+    private final int maxSize;
+    
+    public KeysetPaging(@Value("${aegis.pagination.default-size:100}") int defaultSize,
+                        @Value("${aegis.pagination.max-size:1000}") int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.defaultSize = Math.min(Math.max(1, defaultSize), this.maxSize);
+    }
+    
+    /**
+     * Reads the page after the cursor (the first page when it is null). One extra row is
+     * fetched to tell whether another page follows.
+     */
+    public <E> CursorPage<E> page(String cursor, Integer size, KeysetQuery<E> query,
+                                  Function<E, LocalDateTime> createdAt, Function<E, Long> id) {
+        int pageSize = pageSize(size);
+        LocalDateTime afterTime = START;
+        Long afterId = -1L;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterTime = LocalDateTime.parse(key[0]);
+                afterId = Long.valueOf(key[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        List<E> rows = query.find(afterTime, afterId, PageRequest.of(0, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        rows = rows.subList(0, pageSize);
+        E last = rows.get(pageSize - 1);
+        String key = createdAt.apply(last) + "|" + id.apply(last);
+        return new CursorPage<>(rows, Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * Filtered variant for the /filter endpoints: rows matching the specification, ordered by
+     * (sort key, id) and starting after the cursor. The key condition is added to the same WHERE
+     * clause, so a page is one query however many filters are combined. sort is a key name,
+     * ascending, or "-name" for descending; it defaults to the first key, descending.
+     */
+    public <E> CursorPage<E> page(JpaSpecificationExecutor<E> repository, Specification<E> filter, String sort,
+                                  List<SortKey<E, ?>> sortKeys, Function<E, Long> id, String cursor, Integer size) {
+        boolean descending = sort == null || sort.isBlank() || sort.startsWith("-");
+        String name = sort == null || sort.isBlank() ? sortKeys.get(0).name() : sort.replaceFirst("^-", "");
+        SortKey<E, ?> sortKey = sortKeys.stream()
+                .filter(key -> key.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + sort));
+        return page(repository, filter, sortKey, descending, id, cursor, pageSize(size));
+    }
+    
+    private <E, V extends Comparable<? super V>> CursorPage<E> page(JpaSpecificationExecutor<E> repository,
+                                                                    Specification<E> filter, SortKey<E, V> sortKey,
+                                                                    boolean descending, Function<E, Long> id,
+                                                                    String cursor, int pageSize) {
+        Specification<E> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            V afterValue;
+            Long afterId;
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = key.lastIndexOf('|');
+                afterValue = sortKey.parser().apply(key.substring(0, separator));
+                afterId = Long.valueOf(key.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            spec = spec.and(after(sortKey.name(), afterValue, afterId, descending));
+        }
+        
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, sortKey.name()).and(Sort.by(direction, "id"));
+        List<E> rows = repository.findBy(spec, query -> query.sortBy(order).limit(pageSize + 1).all());
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        rows = rows.subList(0, pageSize);
+        E last = rows.get(pageSize - 1);
+        String key = sortKey.value().apply(last) + "|" + id.apply(last);
+        return new CursorPage<>(rows, Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    // value >= v AND (value > v OR id > lastId), mirrored for descending; the leading range keeps it index-friendly
+    private static <E, V extends Comparable<? super V>> Specification<E> after(String attribute, V value, Long afterId,
+                                                                              boolean descending) {
+        return (root, query, cb) -> {
+            Path<V> path = root.get(attribute);
+            Path<Long> idPath = root.get("id");
+            if (descending) {
+                return cb.and(cb.lessThanOrEqualTo(path, value),
+                        cb.or(cb.lessThan(path, value), cb.lessThan(idPath, afterId)));
+            }
+            return cb.and(cb.greaterThanOrEqualTo(path, value),
+                    cb.or(cb.greaterThan(path, value), cb.greaterThan(idPath, afterId)));
+        };
+    }
+    
+    private int pageSize(Integer size) {
+        return size == null ? defaultSize : Math.min(Math.max(1, size), maxSize);
+    }
+    
+    /**
+     * A sortable attribute: its name (entity attribute and sort parameter), how to read it
+     * back from a cursor, and how to take it from the last row of a page.
+     */
+    public record SortKey<E, V extends Comparable<? super V>>(String name, Function<String, V> parser,
+                                                               Function<E, V> value) {}
+    
+    /**
+     * Rows ordered by (createdAt, id) that come after the given key.
+     */
+    @FunctionalInterface
+    public interface KeysetQuery<E> {
+        List<E> find(LocalDateTime afterTime, Long afterId, Pageable pageable);
+    }
+}
@@ -0,0 +1,174 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.JournalEntry;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.JournalEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Double-entry journal behind account balances.
+ * Every money movement is posted as balanced debit/credit legs; Account.balance is
+ * the projection of the CUSTOMER legs and is maintained with atomic updates as legs are posted.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class LedgerService {
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final AccountRepository accountRepository;
+
+    /**
+     * Posts a transfer: debit the source for the total, credit the destination (or external
+     * clearing) for the amount and fee income for the fee. Returns false, writing nothing,
+     * if the source balance cannot cover the total.
+     */
+    public boolean postTransfer(Transfer transfer, Account destAccount) {
+        Long sourceId = transfer.getFromAccount().getId();
+        BigDecimal total = transfer.getTotalAmount();
+        BigDecimal fee = total.subtract(transfer.getAmount());
+
+        // The debit goes first: it is the only leg that can be refused
+        if (accountRepository.debitIfSufficient(sourceId, total, LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        String postingId = UUID.randomUUID().toString();
+        List<JournalEntry> legs = new ArrayList<>(3);
+        legs.add(customerLeg(postingId, sourceId, transfer.getId(), JournalEntry.Direction.DEBIT, total, JournalEntry.EntryType.TRANSFER));
+        if (destAccount != null) {
+            accountRepository.credit(destAccount.getId(), transfer.getAmount(), LocalDateTime.now());
+            legs.add(customerLeg(postingId, destAccount.getId(), transfer.getId(), JournalEntry.Direction.CREDIT,
+                    transfer.getAmount(), JournalEntry.EntryType.TRANSFER));
+        } else {
+            legs.add(new JournalEntry(postingId, JournalEntry.LedgerAccount.EXTERNAL_CLEARING, null, transfer.getId(),
+                    JournalEntry.Direction.CREDIT, transfer.getAmount(), JournalEntry.EntryType.TRANSFER));
+        }
+        if (fee.signum() > 0) {
+            legs.add(new JournalEntry(postingId, JournalEntry.LedgerAccount.FEE_INCOME, null, transfer.getId(),
+                    JournalEntry.Direction.CREDIT, fee, JournalEntry.EntryType.TRANSFER));
+        }
+
+        journalEntryRepository.saveAll(legs);
+        return true;
+    }
+
+    /**
+     * Reverses a posted transfer by mirroring its original legs, so the reversal
+     * undoes exactly what was booked.
+     */
+    public void reverseTransfer(Transfer transfer) {
+        List<JournalEntry> original = journalEntryRepository.findByTransferIdAndEntryType(
+                transfer.getId(), JournalEntry.EntryType.TRANSFER);
+        if (original.isEmpty()) {
+            throw new IllegalArgumentException("No journal postings found for transfer");
+        }
+
+        String postingId = UUID.randomUUID().toString();
+        List<JournalEntry> legs = new ArrayList<>(original.size());
+        // Debits first so a refused one aborts before anything else is applied
+        for (JournalEntry entry : original) {
+            if (entry.getLedgerAccount() == JournalEntry.LedgerAccount.CUSTOMER
+                    && entry.getDirection() == JournalEntry.Direction.CREDIT
+                    && accountRepository.debitIfSufficient(entry.getAccountId(), entry.getAmount(), LocalDateTime.now()) == 0) {
+                throw new IllegalArgumentException("Insufficient funds to reverse transfer");
+            }
+        }
+        for (JournalEntry entry : original) {
+            JournalEntry.Direction mirrored = entry.getDirection() == JournalEntry.Direction.DEBIT
+                    ? JournalEntry.Direction.CREDIT : JournalEntry.Direction.DEBIT;
+            if (entry.getLedgerAccount() == JournalEntry.LedgerAccount.CUSTOMER
+                    && mirrored == JournalEntry.Direction.CREDIT) {
+                accountRepository.credit(entry.getAccountId(), entry.getAmount(), LocalDateTime.now());
+            }
+            legs.add(new JournalEntry(postingId, entry.getLedgerAccount(), entry.getAccountId(), entry.getTransferId(),
+                    mirrored, entry.getAmount(), JournalEntry.EntryType.REVERSAL));
+        }
+
+        journalEntryRepository.saveAll(legs);
+    }
+
+    /**
+     * Journals a balance change that was applied directly to the account row
+     * (admin edits, opening balances) against the ADJUSTMENT account.
+     */
+    public void recordAdjustment(Long accountId, BigDecimal delta) {
+        if (delta == null || delta.signum() == 0) {
+            return;
+        }
+        String postingId = UUID.randomUUID().toString();
+        JournalEntry.Direction customerSide = delta.signum() > 0 ? JournalEntry.Direction.CREDIT : JournalEntry.Direction.DEBIT;
+        JournalEntry.Direction counterSide = delta.signum() > 0 ? JournalEntry.Direction.DEBIT : JournalEntry.Direction.CREDIT;
+        BigDecimal amount = delta.abs();
+
+        journalEntryRepository.saveAll(List.of(
+                customerLeg(postingId, accountId, null, customerSide, amount, JournalEntry.EntryType.ADJUSTMENT),
+                new JournalEntry(postingId, JournalEntry.LedgerAccount.ADJUSTMENT, null, null,
+                        counterSide, amount, JournalEntry.EntryType.ADJUSTMENT)));
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getJournalBalance(Long accountId) {
+        return journalEntryRepository.sumBalanceByAccountId(accountId);
+    }
+
+    /**
+     * Net change of a customer balance from the legs posted in [from, before).
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getJournalBalanceChange(Long accountId, LocalDateTime from, LocalDateTime before) {
+        return journalEntryRepository.sumBalanceChangeByAccountId(accountId, from, before);
+    }
+
+    /**
+     * Recomputes every customer balance from the journal in one grouped query and
+     * returns the accounts whose projected balance disagrees (accountId -> journal balance).
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> findBalanceMismatches() {
+        Map<Long, BigDecimal> journalBalances = new HashMap<>();
+        for (Object[] row : journalEntryRepository.sumBalancesByAccount()) {
+            journalBalances.put((Long) row[0], (BigDecimal) row[1]);
+        }
+
+        Map<Long, BigDecimal> mismatches = new HashMap<>();
+        for (Object[] row : accountRepository.findAllBalances()) {
+            Long accountId = (Long) row[0];
+            BigDecimal expected = journalBalances.getOrDefault(accountId, BigDecimal.ZERO);
+            if (((BigDecimal) row[1]).compareTo(expected) != 0) {
+                mismatches.put(accountId, expected);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Overwrites the projected balance of an account with the value rebuilt from its journal.
+     */
+    public BigDecimal rebuildBalance(Long accountId) {
+        BigDecimal balance = journalEntryRepository.sumBalanceByAccountId(accountId);
+        if (accountRepository.overwriteBalance(accountId, balance, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        return balance;
+    }
+
+    private JournalEntry customerLeg(String postingId, Long accountId, Long transferId,
+                                     JournalEntry.Direction direction, BigDecimal amount,
+                                     JournalEntry.EntryType entryType) {
+        return new JournalEntry(postingId, JournalEntry.LedgerAccount.CUSTOMER, accountId, transferId,
+                direction, amount, entryType);
+    }
+}
@@ -1,5 +1,7 @@
 package com.hellenicbank.service;
 
+import com.hellenicbank.dto.CursorPage;
+import com.hellenicbank.dto.LoanFilter;
 import com.hellenicbank.dto.LoanRequest;
 import com.hellenicbank.dto.LoanResponse;
 import com.hellenicbank.dto.LoanStatusUpdateRequest;
@@ -9,6 +11,7 @@ import com.hellenicbank.entity.Account;
 import com.hellenicbank.repository.LoanRepository;
 import com.hellenicbank.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,9 +26,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class LoanService {
     
+    // Sort keys of GET /api/loans/filter; the first one is the default
+    private static final List<KeysetPaging.SortKey<Loan, ?>> FILTER_SORT_KEYS = List.of(
+            new KeysetPaging.SortKey<Loan, LocalDateTime>("createdAt", LocalDateTime::parse, Loan::getCreatedAt),
+            new KeysetPaging.SortKey<Loan, BigDecimal>("principal", BigDecimal::new, Loan::getPrincipal));
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    
     private final LoanRepository loanRepository;
     private final UserRepository userRepository;
     private final AccountService accountService;
+    private final KeysetPaging keysetPaging;
+    private final FullTextSearch fullTextSearch;
+    private final StatisticsService statisticsService;
     
     // CREATE operations
     @Transactional
@@ -75,6 +87,10 @@ public class LoanService {
         return loanRepository.findAll();
     }
     
+    public CursorPage<Loan> getLoansPage(String cursor, Integer size) {
+        return keysetPaging.page(cursor, size, loanRepository::findPageAfter, Loan::getCreatedAt, Loan::getId);
+    }
+    
     public Loan getLoanById(Long loanId) {
         return loanRepository.findById(loanId)
                 .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
@@ -212,38 +228,60 @@ public class LoanService {
     }
     
     // Search and filter operations
+    /**
+     * Any combination of filters as one keyset-paginated query. userId limits it to that
+     * user's loans; null (admin) means all loans, optionally narrowed by filter.userId.
+     */
+    public CursorPage<Loan> filterLoans(LoanFilter filter, Long userId, String sort, String cursor, Integer size) {
+        return keysetPaging.page(loanRepository, FilterSpecifications.loans(filter, userId), sort,
+                FILTER_SORT_KEYS, Loan::getId, cursor, size);
+    }
+    
+    // Single-filter searches, kept for existing clients; same specification, unpaged
     public List<Loan> getLoansByAmountRange(Long userId, BigDecimal minAmount, BigDecimal maxAmount) {
-        return loanRepository.findByUserIdAndPrincipalBetween(userId, minAmount, maxAmount);
+        LoanFilter filter = new LoanFilter();
+        filter.setMinAmount(minAmount);
+        filter.setMaxAmount(maxAmount);
+        return findLoans(filter, userId);
     }
     
     public List<Loan> getLoansByDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
-        return loanRepository.findByUserIdAndCreatedAtBetween(userId, startDate, endDate);
+        LoanFilter filter = new LoanFilter();
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+        return findLoans(filter, userId);
     }
     
-    public List<Loan> getLoansByPurpose(Long userId, String purpose) {
-        return loanRepository.findByUserIdAndPurposeContaining(userId, purpose);
+    public CursorPage<Loan> searchLoansByPurpose(Long userId, String purpose, String cursor, Integer size) {
+        return fullTextSearch.search(purpose, cursor, size,
+                (query, limit, offset) -> loanRepository.searchByUserIdAndPurpose(userId, query, limit, offset));
     }
     
     // Admin search operations
     public List<Loan> getLoansByAmountRangeAdmin(BigDecimal minAmount, BigDecimal maxAmount) {
-        return loanRepository.findByPrincipalBetween(minAmount, maxAmount);
+        return getLoansByAmountRange(null, minAmount, maxAmount);
     }
     
     public List<Loan> getLoansByDateRangeAdmin(LocalDateTime startDate, LocalDateTime endDate) {
-        return loanRepository.findByCreatedAtBetween(startDate, endDate);
+        return getLoansByDateRange(null, startDate, endDate);
+    }
+    
+    public CursorPage<Loan> searchLoansByPurposeAdmin(String purpose, String cursor, Integer size) {
+        return fullTextSearch.search(purpose, cursor, size, loanRepository::searchByPurpose);
     }
     
-    public List<Loan> getLoansByPurposeAdmin(String purpose) {
-        return loanRepository.findByPurposeContaining(purpose);
+    private List<Loan> findLoans(LoanFilter filter, Long userId) {
+        return loanRepository.findAll(FilterSpecifications.loans(filter, userId), NEWEST_FIRST);
     }
     
     // Statistics
+    // Served from the maintained counters instead of a COUNT/SUM scan per call
     public Long getLoanCountByStatus(Loan.LoanStatus status) {
-        return loanRepository.countByStatus(status);
+        return statisticsService.count(StatisticsService.Kind.LOANS, status);
     }
     
     public BigDecimal getTotalPrincipalByStatus(Loan.LoanStatus status) {
-        BigDecimal total = loanRepository.sumPrincipalByStatus(status);
+        BigDecimal total = statisticsService.amount(StatisticsService.Kind.LOANS, status);
         return total != null ? total : BigDecimal.ZERO;
     }
     
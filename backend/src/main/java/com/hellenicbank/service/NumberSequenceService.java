@@ -0,0 +1,26 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.repository.NumberSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public class NumberSequenceService {
+    
+    private final NumberSequenceRepository numberSequenceRepository;
+    
+    /**
+     * Reserves blockSize consecutive values of the named sequence and returns the first one.
+     * Runs in its own transaction so the counter row is locked only briefly and the block stays
+     * reserved even if the caller rolls back (which only leaves a gap).
+     */
+    public long reserveBlock(String name, long blockSize) {
+        numberSequenceRepository.reserve(name, blockSize);
+        return numberSequenceRepository.findNextValue(name)
+                .orElseThrow(() -> new IllegalStateException("Sequence " + name + " disappeared")) - blockSize;
+    }
+}
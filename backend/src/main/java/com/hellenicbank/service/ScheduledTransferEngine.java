@@ -0,0 +1,312 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.ScheduledTransfer;
+import com.hellenicbank.repository.ScheduledTransferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires scheduled transfers and standing orders.
+ * Only the next window of due schedules is read (via the status/execute_at index) into an
+ * in-memory hierarchical timing wheel; a ticker advances the wheel and due ids are drained
+ * in batches through ScheduledTransferService. Nothing is kept only in memory: after a
+ * restart the first window load picks up every overdue schedule and fires it.
+ * Firing creates PENDING transfers. They are settled by TransferProcessingEngine when
+ * aegis.processing.enabled is on; otherwise they are processed here right after the firing
+ * batch commits, so standing orders move money with the default configuration too.
+ * A batch that fails for a reason other than the database is split in halves until the
+ * failing schedules are alone; one that keeps failing on its own is marked FAILED.
+ */
+@Component
+@ConditionalOnProperty(name = "aegis.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ScheduledTransferEngine {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ScheduledTransferService scheduledTransferService;
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransferService transferService;
+    // No background processing engine: settle the transfers fired here inline
+    private final boolean processInline;
+
+    private final long tickMillis;
+    private final long windowMillis;
+    private final long retryDelayMillis;
+    private final int batchSize;
+    private final int loadPageSize;
+    private final int maxAttempts;
+
+    private final HierarchicalTimingWheel<Long> wheel;
+    // Ids in the wheel and their expiration, so overlapping loads do not add them twice
+    private final Map<Long, Long> scheduled = new ConcurrentHashMap<>();
+    private final BlockingQueue<Long> dueQueue = new LinkedBlockingQueue<>();
+    // Schedules before this instant have been read into the wheel; later ones are left to the next load
+    private volatile LocalDateTime loadedUntil;
+    // Failed solo attempts per schedule; cleared when it fires or is given up on
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+    private Thread firer;
+    private volatile boolean running;
+
+    private final Counter batchCounter;
+    private final Counter batchErrorCounter;
+    private final Counter givenUpCounter;
+
+    public ScheduledTransferEngine(ScheduledTransferService scheduledTransferService,
+                                   ScheduledTransferRepository scheduledTransferRepository,
+                                   TransferService transferService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${aegis.processing.enabled:false}") boolean processingEnabled,
+                                   @Value("${aegis.scheduling.tick-ms:1000}") long tickMillis,
+                                   @Value("${aegis.scheduling.wheel-size:60}") int wheelSize,
+                                   @Value("${aegis.scheduling.window-ms:600000}") long windowMillis,
+                                   @Value("${aegis.scheduling.retry-delay-ms:30000}") long retryDelayMillis,
+                                   @Value("${aegis.scheduling.batch-size:500}") int batchSize,
+                                   @Value("${aegis.scheduling.load-page-size:5000}") int loadPageSize,
+                                   @Value("${aegis.scheduling.max-attempts:3}") int maxAttempts) {
+        this.scheduledTransferService = scheduledTransferService;
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transferService = transferService;
+        this.processInline = !processingEnabled;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.windowMillis = windowMillis;
+        this.retryDelayMillis = retryDelayMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.loadPageSize = Math.max(1, loadPageSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.wheel = new HierarchicalTimingWheel<>(this.tickMillis, Math.max(2, wheelSize), System.currentTimeMillis());
+
+        Gauge.builder("aegis.scheduling.wheel.size", this, engine -> engine.wheelSize())
+                .description("Scheduled transfers waiting in the timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("aegis.scheduling.due.queue", dueQueue, BlockingQueue::size)
+                .description("Due scheduled transfers waiting to be fired")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("aegis.scheduling.batches")
+                .register(meterRegistry);
+        this.batchErrorCounter = Counter.builder("aegis.scheduling.batch.errors")
+                .description("Firing batches rolled back and retried later")
+                .register(meterRegistry);
+        this.givenUpCounter = Counter.builder("aegis.scheduling.schedules.given.up")
+                .description("Schedules marked FAILED after failing on their own max-attempts times")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-transfer-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        firer = new Thread(this::fireLoop, "scheduled-transfer-firer");
+        firer.setDaemon(true);
+        firer.start();
+        log.info("Scheduled transfer engine started; fired transfers are settled {}",
+                processInline ? "inline after each firing batch" : "by the transfer processing engine");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        ticker.shutdownNow();
+        firer.interrupt();
+    }
+
+    /**
+     * Reads the schedules coming due before now + window that have not been loaded yet.
+     * The first run starts from the beginning of time, which is what makes firing restart-safe.
+     */
+    @Scheduled(fixedDelayString = "${aegis.scheduling.load-interval-ms:60000}")
+    public void loadWindow() {
+        LocalDateTime from = loadedUntil != null ? loadedUntil : EPOCH;
+        LocalDateTime until = LocalDateTime.now().plusNanos(windowMillis * 1_000_000);
+        // Publish the new horizon first: schedules created meanwhile are then added by schedule()
+        loadedUntil = until;
+
+        LocalDateTime afterTime = from;
+        long afterId = -1;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> page = scheduledTransferRepository.findDueWindow(afterTime, afterId, until,
+                    PageRequest.of(0, loadPageSize));
+            for (Object[] row : page) {
+                addToWheel((Long) row[0], toMillis((LocalDateTime) row[1]));
+            }
+            loaded += page.size();
+            if (page.size() < loadPageSize) {
+                break;
+            }
+            Object[] last = page.get(page.size() - 1);
+            afterId = (Long) last[0];
+            afterTime = (LocalDateTime) last[1];
+        }
+        if (loaded > 0) {
+            log.debug("Loaded {} scheduled transfers due before {}", loaded, until);
+        }
+    }
+
+    /**
+     * Adds a new or rescheduled transfer if it falls inside the loaded window;
+     * later ones are picked up by a future window load.
+     */
+    public void schedule(Long scheduledTransferId, LocalDateTime executeAt) {
+        LocalDateTime horizon = loadedUntil;
+        if (horizon != null && executeAt.isBefore(horizon)) {
+            addToWheel(scheduledTransferId, toMillis(executeAt));
+        }
+    }
+
+    private void addToWheel(Long id, long expirationMillis) {
+        Long previous = scheduled.put(id, expirationMillis);
+        if (previous != null && previous == expirationMillis) {
+            return;
+        }
+        boolean stored;
+        synchronized (wheel) {
+            stored = wheel.add(id, expirationMillis);
+        }
+        if (!stored) {
+            scheduled.remove(id);
+            dueQueue.add(id);
+        }
+    }
+
+    private void tick() {
+        try {
+            List<Long> due;
+            synchronized (wheel) {
+                due = wheel.advance(System.currentTimeMillis());
+            }
+            for (Long id : due) {
+                scheduled.remove(id);
+                dueQueue.add(id);
+            }
+        } catch (RuntimeException e) {
+            log.error("Scheduled transfer tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void fireLoop() {
+        while (running) {
+            try {
+                List<Long> batch = new ArrayList<>(batchSize);
+                batch.add(dueQueue.take());
+                dueQueue.drainTo(batch, batchSize - 1);
+                fire(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void fire(List<Long> batch) {
+        try {
+            ScheduledTransferService.FiredSchedules fired = scheduledTransferService.fireDue(batch);
+            batchCounter.increment();
+            batch.forEach(failedAttempts::remove);
+            if (processInline) {
+                settle(fired.transferIds());
+            }
+            // Next occurrences (and schedules another node already advanced) go back on the wheel
+            for (ScheduledTransfer scheduledTransfer : fired.schedules()) {
+                if (scheduledTransfer.getStatus() == ScheduledTransfer.ScheduleStatus.ACTIVE) {
+                    schedule(scheduledTransfer.getId(), scheduledTransfer.getExecuteAt());
+                }
+            }
+        } catch (Exception e) {
+            batchErrorCounter.increment();
+            if (e instanceof TransientDataAccessException || e instanceof TransactionException) {
+                // Database trouble, not the schedules: the whole batch is retried later
+                log.warn("Scheduled transfer batch {} rolled back, retrying in {} ms: {}", batch, retryDelayMillis, e.getMessage());
+                retryLater(batch);
+            } else if (batch.size() > 1) {
+                int half = batch.size() / 2;
+                fire(batch.subList(0, half));
+                fire(batch.subList(half, batch.size()));
+            } else {
+                giveUpAfterMaxAttempts(batch.get(0), e);
+            }
+        }
+    }
+
+    private void giveUpAfterMaxAttempts(Long scheduledTransferId, Exception error) {
+        int attempts = failedAttempts.merge(scheduledTransferId, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.warn("Scheduled transfer {} failed (attempt {} of {}), retrying in {} ms: {}",
+                    scheduledTransferId, attempts, maxAttempts, retryDelayMillis, error.getMessage());
+            retryLater(List.of(scheduledTransferId));
+            return;
+        }
+        failedAttempts.remove(scheduledTransferId);
+        try {
+            if (scheduledTransferService.failSchedule(scheduledTransferId, error.getMessage())) {
+                givenUpCounter.increment();
+                log.error("Scheduled transfer {} marked FAILED after {} failed attempts: {}",
+                        scheduledTransferId, attempts, error.getMessage(), error);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not mark scheduled transfer {} FAILED, retrying in {} ms: {}",
+                    scheduledTransferId, retryDelayMillis, e.getMessage());
+            retryLater(List.of(scheduledTransferId));
+        }
+    }
+
+    private void retryLater(List<Long> ids) {
+        long retryAt = System.currentTimeMillis() + retryDelayMillis;
+        for (Long id : ids) {
+            addToWheel(id, retryAt);
+        }
+    }
+
+    // Occurrences are already recorded; a transfer that cannot be settled here stays PENDING
+    private void settle(List<Long> transferIds) {
+        if (transferIds.isEmpty()) {
+            return;
+        }
+        try {
+            transferService.processPendingBatch(transferIds);
+        } catch (RuntimeException e) {
+            log.warn("Could not settle scheduled transfers {}, they stay PENDING: {}", transferIds, e.getMessage());
+        }
+    }
+
+    private int wheelSize() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,150 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.dto.BatchTransferResult;
+import com.hellenicbank.dto.ScheduledTransferRequest;
+import com.hellenicbank.dto.TransferRequest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.ScheduledTransfer;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.ScheduledTransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ScheduledTransferService {
+    
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final AccountRepository accountRepository;
+    private final TransferService transferService;
+    
+    public ScheduledTransfer createScheduledTransfer(ScheduledTransferRequest request, Long userId) {
+        Account fromAccount = accountRepository.findById(request.getFromAccountId())
+                .filter(account -> account.getUser().getId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Account not found or not owned by user"));
+        
+        if (request.getExecuteAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Execution time must be in the future");
+        }
+        if (request.getEndAt() != null && request.getEndAt().isBefore(request.getExecuteAt())) {
+            throw new IllegalArgumentException("End time must be after the first execution");
+        }
+        
+        ScheduledTransfer scheduled = new ScheduledTransfer();
+        scheduled.setFromAccount(fromAccount);
+        scheduled.setToIban(request.getToIban());
+        scheduled.setToAccountId(request.getToAccountId());
+        scheduled.setAmount(request.getAmount());
+        scheduled.setDescription(request.getDescription());
+        scheduled.setCategory(request.getCategory());
+        scheduled.setFrequency(request.getFrequency() != null ? request.getFrequency() : ScheduledTransfer.Frequency.ONCE);
+        scheduled.setStartAt(request.getExecuteAt());
+        scheduled.setExecuteAt(request.getExecuteAt());
+        scheduled.setEndAt(request.getEndAt());
+        scheduled.setStatus(ScheduledTransfer.ScheduleStatus.ACTIVE);
+        
+        return scheduledTransferRepository.save(scheduled);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ScheduledTransfer> getUserScheduledTransfers(Long userId) {
+        return scheduledTransferRepository.findByUserId(userId);
+    }
+    
+    public ScheduledTransfer cancelScheduledTransfer(Long id, Long userId) {
+        ScheduledTransfer scheduled = scheduledTransferRepository.findById(id)
+                .filter(s -> s.getFromAccount().getUser().getId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Scheduled transfer not found"));
+        
+        if (scheduled.getStatus() != ScheduledTransfer.ScheduleStatus.ACTIVE) {
+            throw new IllegalArgumentException("Only active scheduled transfers can be cancelled");
+        }
+        
+        scheduled.setStatus(ScheduledTransfer.ScheduleStatus.CANCELLED);
+        return scheduledTransferRepository.save(scheduled);
+    }
+    
+    /**
+     * Fires the given schedules that are due, in one transaction: each creates a PENDING transfer
+     * and moves to its next occurrence. The transfers and the advanced execute_at commit together
+     * and @Version rejects a schedule fired concurrently elsewhere, so an occurrence is fired
+     * exactly once even across restarts. Returns every schedule loaded, fired or not, with the
+     * ids of the PENDING transfers created.
+     */
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+               backoff = @Backoff(delay = 50, multiplier = 2))
+    public FiredSchedules fireDue(List<Long> scheduledTransferIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ScheduledTransfer> loaded = scheduledTransferRepository.findAllWithAccountByIdIn(scheduledTransferIds);
+        List<ScheduledTransfer> due = loaded.stream()
+                .filter(s -> s.getStatus() == ScheduledTransfer.ScheduleStatus.ACTIVE && !s.getExecuteAt().isAfter(now))
+                .sorted(Comparator.comparing(ScheduledTransfer::getId))
+                .toList();
+        if (due.isEmpty()) {
+            return new FiredSchedules(loaded, List.of());
+        }
+        
+        List<TransferRequest> requests = new ArrayList<>(due.size());
+        List<Long> ownerIds = new ArrayList<>(due.size());
+        for (ScheduledTransfer scheduled : due) {
+            TransferRequest request = new TransferRequest();
+            request.setFromAccountId(scheduled.getFromAccount().getId());
+            request.setToIban(scheduled.getToIban());
+            request.setToAccountId(scheduled.getToAccountId());
+            request.setAmount(scheduled.getAmount());
+            request.setDescription(scheduled.getDescription());
+            request.setCategory(scheduled.getCategory());
+            requests.add(request);
+            ownerIds.add(scheduled.getFromAccount().getUser().getId());
+        }
+        
+        List<BatchTransferResult> results = transferService.createScheduledTransfers(requests, ownerIds);
+        List<Long> transferIds = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            ScheduledTransfer scheduled = due.get(i);
+            BatchTransferResult result = results.get(i);
+            if (result.isSuccess()) {
+                scheduled.setLastTransferId(result.getTransfer().getId());
+                transferIds.add(result.getTransfer().getId());
+                scheduled.setLastError(null);
+            } else {
+                scheduled.setLastError(result.getError());
+            }
+            
+            // A failed future-dated transfer is final; a standing order skips to its next occurrence
+            if (!result.isSuccess() && scheduled.getFrequency() == ScheduledTransfer.Frequency.ONCE) {
+                scheduled.setStatus(ScheduledTransfer.ScheduleStatus.FAILED);
+            } else {
+                scheduled.advance();
+            }
+        }
+        
+        // Dirty checking flushes these as batched, version-checked updates
+        return new FiredSchedules(loaded, transferIds);
+    }
+    
+    // Gives up on a schedule whose firing keeps failing (see ScheduledTransferEngine); false if it is no longer ACTIVE
+    public boolean failSchedule(Long scheduledTransferId, String error) {
+        return scheduledTransferRepository.findById(scheduledTransferId)
+                .filter(scheduled -> scheduled.getStatus() == ScheduledTransfer.ScheduleStatus.ACTIVE)
+                .map(scheduled -> {
+                    scheduled.setStatus(ScheduledTransfer.ScheduleStatus.FAILED);
+                    // last_error is a VARCHAR(255)
+                    scheduled.setLastError(error != null && error.length() > 255 ? error.substring(0, 255) : error);
+                    return true;
+                })
+                .orElse(false);
+    }
+    
+    public record FiredSchedules(List<ScheduledTransfer> schedules, List<Long> transferIds) {}
+}
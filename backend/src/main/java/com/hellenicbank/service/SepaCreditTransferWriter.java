@@ -0,0 +1,133 @@
+package com.hellenicbank.service;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streams a pain.001-style (SEPA credit transfer initiation) document. Elements are written
+ * as they come, so memory use does not depend on the number of transactions. Each payment
+ * information block nets the transfers for one destination bank.
+ */
+public class SepaCreditTransferWriter implements AutoCloseable {
+
+    private static final String NAMESPACE = "urn:iso:std:iso:20022:tech:xsd:pain.001.001.03";
+
+    private final XMLStreamWriter xml;
+    private final String debtorName;
+    private final String debtorIban;
+
+    public SepaCreditTransferWriter(OutputStream out, String debtorName, String debtorIban) throws XMLStreamException {
+        this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+        this.debtorName = debtorName;
+        this.debtorIban = debtorIban;
+    }
+
+    public void startDocument(String messageId, LocalDateTime createdAt, long transactionCount, BigDecimal controlSum)
+            throws XMLStreamException {
+        xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        xml.writeStartElement("Document");
+        xml.writeDefaultNamespace(NAMESPACE);
+        xml.writeStartElement("CstmrCdtTrfInitn");
+
+        xml.writeStartElement("GrpHdr");
+        element("MsgId", messageId);
+        element("CreDtTm", createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        element("NbOfTxs", String.valueOf(transactionCount));
+        element("CtrlSum", controlSum.toPlainString());
+        xml.writeStartElement("InitgPty");
+        element("Nm", debtorName);
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    public void startPaymentGroup(String paymentInfoId, String bankCode, long transactionCount,
+                                  BigDecimal controlSum, LocalDate executionDate) throws XMLStreamException {
+        xml.writeStartElement("PmtInf");
+        element("PmtInfId", paymentInfoId);
+        element("PmtMtd", "TRF");
+        element("NbOfTxs", String.valueOf(transactionCount));
+        element("CtrlSum", controlSum.toPlainString());
+        xml.writeStartElement("PmtTpInf");
+        xml.writeStartElement("SvcLvl");
+        element("Cd", "SEPA");
+        xml.writeEndElement();
+        xml.writeEndElement();
+        element("ReqdExctnDt", executionDate.toString());
+        xml.writeStartElement("Dbtr");
+        element("Nm", debtorName);
+        xml.writeEndElement();
+        xml.writeStartElement("DbtrAcct");
+        xml.writeStartElement("Id");
+        element("IBAN", debtorIban);
+        xml.writeEndElement();
+        xml.writeEndElement();
+        // Destination bank of every transaction in this block
+        xml.writeStartElement("CdtrAgt");
+        xml.writeStartElement("FinInstnId");
+        xml.writeStartElement("ClrSysMmbId");
+        element("MmbId", bankCode);
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    public void writeTransaction(String endToEndId, BigDecimal amount, String currency, String creditorIban,
+                                 String remittanceInfo, String ultimateDebtorName) throws XMLStreamException {
+        xml.writeStartElement("CdtTrfTxInf");
+        xml.writeStartElement("PmtId");
+        element("EndToEndId", endToEndId);
+        xml.writeEndElement();
+        xml.writeStartElement("Amt");
+        xml.writeStartElement("InstdAmt");
+        xml.writeAttribute("Ccy", currency);
+        xml.writeCharacters(amount.toPlainString());
+        xml.writeEndElement();
+        xml.writeEndElement();
+        if (ultimateDebtorName != null) {
+            xml.writeStartElement("UltmtDbtr");
+            element("Nm", ultimateDebtorName);
+            xml.writeEndElement();
+        }
+        xml.writeStartElement("CdtrAcct");
+        xml.writeStartElement("Id");
+        element("IBAN", creditorIban);
+        xml.writeEndElement();
+        xml.writeEndElement();
+        if (remittanceInfo != null && !remittanceInfo.isBlank()) {
+            xml.writeStartElement("RmtInf");
+            // Unstructured remittance information is limited to 140 characters
+            element("Ustrd", remittanceInfo.length() > 140 ? remittanceInfo.substring(0, 140) : remittanceInfo);
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+    }
+
+    public void endPaymentGroup() throws XMLStreamException {
+        xml.writeEndElement();
+    }
+
+    public void endDocument() throws XMLStreamException {
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.flush();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        xml.close();
+    }
+
+    private void element(String name, String value) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
@@ -0,0 +1,37 @@
+package com.hellenicbank.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Runs the settlement cut-offs for EXTERNAL transfers.
+ */
+@Component
+@ConditionalOnProperty(name = "aegis.settlement.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementScheduler {
+    
+    private final SettlementService settlementService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        settlementService.recoverOutboundFiles();
+    }
+    
+    @Scheduled(cron = "${aegis.settlement.cutoff-cron:0 0 * * * *}")
+    public void cutoff() {
+        try {
+            settlementService.settle(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Settlement cut-off failed, transfers stay unsettled for the next one: {}", e.getMessage(), e);
+        }
+    }
+}
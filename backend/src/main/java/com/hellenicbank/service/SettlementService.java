@@ -0,0 +1,200 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.SettlementBatch;
+import com.hellenicbank.repository.SettlementBatchRepository;
+import com.hellenicbank.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Outbound settlement of EXTERNAL transfers.
+ * At each cut-off the completed, unsettled EXTERNAL transfers are claimed for a batch with one
+ * bulk update, then streamed straight from the database into a credit-transfer XML file,
+ * netted per destination bank. The file is published when the claim commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class SettlementService {
+    
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final String PART_SUFFIX = ".part";
+    
+    private final TransferRepository transferRepository;
+    private final SettlementBatchRepository settlementBatchRepository;
+    
+    @Value("${aegis.settlement.outbound-dir:./outbound}")
+    private String outboundDir;
+    
+    @Value("${aegis.settlement.debtor-name:Aegis Bank}")
+    private String debtorName;
+    
+    // Defaults to account number 0, which the account number allocator never hands out
+    @Value("${aegis.settlement.clearing-iban:}")
+    private String clearingIban;
+    
+    public Optional<SettlementBatch> settle(LocalDateTime cutoff) {
+        // IDENTITY id is assigned on insert, so the batch id is known before claiming
+        SettlementBatch batch = settlementBatchRepository.saveAndFlush(new SettlementBatch(cutoff));
+        if (transferRepository.claimForSettlement(batch.getId(), cutoff) == 0) {
+            settlementBatchRepository.delete(batch);
+            return Optional.empty();
+        }
+        
+        // Control sums per destination bank; small (one row per bank), unlike the transfers themselves
+        Map<String, Object[]> groups = new HashMap<>();
+        long transferCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Object[] row : transferRepository.summarizeSettlementBatch(batch.getId())) {
+            String bankCode = bankCode((String) row[0], (String) row[1]);
+            groups.put(bankCode, new Object[]{row[2], row[3]});
+            transferCount += (Long) row[2];
+            totalAmount = totalAmount.add((BigDecimal) row[3]);
+        }
+        
+        String fileName = String.format("SETTLE-%06d-%s.xml", batch.getId(), cutoff.format(FILE_TIMESTAMP));
+        batch.setTransferCount(transferCount);
+        batch.setTotalAmount(totalAmount);
+        batch.setFileName(fileName);
+        
+        Path directory = Paths.get(outboundDir);
+        Path part = directory.resolve(fileName + PART_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            writeFile(part, batch, groups);
+        } catch (IOException | XMLStreamException e) {
+            deleteQuietly(part);
+            throw new IllegalStateException("Could not write settlement file " + fileName, e);
+        }
+        
+        // Publish only once the claim is committed; a rolled back batch leaves no file behind
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    publish(part);
+                } else {
+                    deleteQuietly(part);
+                }
+            }
+        });
+        
+        log.info("Settlement batch {}: {} transfers, {} total, file {}", batch.getId(), transferCount, totalAmount, fileName);
+        return Optional.of(batch);
+    }
+    
+    /**
+     * Finishes files left unpublished by a crash between commit and publish, and removes
+     * those whose batch never committed.
+     */
+    public void recoverOutboundFiles() {
+        Path directory = Paths.get(outboundDir);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(directory, "SETTLE-*.xml" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                Long batchId = Long.valueOf(part.getFileName().toString().split("-")[1]);
+                if (settlementBatchRepository.existsById(batchId)) {
+                    publish(part);
+                } else {
+                    deleteQuietly(part);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not scan settlement outbound directory {}: {}", directory, e.getMessage());
+        }
+    }
+    
+    private void writeFile(Path part, SettlementBatch batch, Map<String, Object[]> groups)
+            throws IOException, XMLStreamException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part));
+             SepaCreditTransferWriter writer = new SepaCreditTransferWriter(out, debtorName, debtorIban());
+             Stream<Object[]> lines = transferRepository.streamSettlementLines(batch.getId())) {
+            
+            writer.startDocument("AEGIS-SETTLE-" + batch.getId(), LocalDateTime.now(),
+                    batch.getTransferCount(), batch.getTotalAmount());
+            
+            // Rows arrive ordered by destination bank, so each group is opened and closed once
+            String currentBank = null;
+            Iterator<Object[]> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                Object[] line = iterator.next();
+                String toIban = (String) line[2];
+                String bankCode = bankCode(toIban.substring(0, Math.min(2, toIban.length())),
+                        toIban.length() > 4 ? toIban.substring(4, Math.min(8, toIban.length())) : "");
+                if (!bankCode.equals(currentBank)) {
+                    if (currentBank != null) {
+                        writer.endPaymentGroup();
+                    }
+                    Object[] group = groups.get(bankCode);
+                    writer.startPaymentGroup(batch.getId() + "-" + bankCode, bankCode,
+                            (Long) group[0], (BigDecimal) group[1], LocalDate.now());
+                    currentBank = bankCode;
+                }
+                
+                String reference = (String) line[1];
+                writer.writeTransaction(reference != null ? reference : "AEGIS-" + line[0],
+                        (BigDecimal) line[3], (String) line[4], toIban, (String) line[5], (String) line[7]);
+            }
+            if (currentBank != null) {
+                writer.endPaymentGroup();
+            }
+            writer.endDocument();
+        }
+    }
+    
+    private void publish(Path part) {
+        String name = part.getFileName().toString();
+        Path target = part.resolveSibling(name.substring(0, name.length() - PART_SUFFIX.length()));
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Could not publish settlement file {}: {}", part, e.getMessage());
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+    
+    private String debtorIban() {
+        return clearingIban == null || clearingIban.isBlank() ? AccountNumberAllocator.toIban(0) : clearingIban;
+    }
+    
+    // Country code plus the first four BBAN characters; upper-cased to match the database's
+    // case-insensitive grouping
+    private static String bankCode(String country, String prefix) {
+        return (country + prefix).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,188 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.SpendingRollup;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.repository.SpendingRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Daily spending rollups per (account, category): completed outgoing transfers by the day they
+ * were made. Completion and reversal add or subtract a delta inside the same transaction, so
+ * the rollups commit (or roll back) with the transfer. Breakdowns read the rollups only.
+ */
+@Service
+@Slf4j
+public class SpendingRollupService {
+    
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::accountId)
+            .thenComparing(Key::category)
+            .thenComparing(Key::day);
+    
+    private final SpendingRollupRepository spendingRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillChunkAccounts;
+    private final int backfillParallelism;
+    
+    public SpendingRollupService(SpendingRollupRepository spendingRollupRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${aegis.spending.backfill.chunk-accounts:1000}") int backfillChunkAccounts,
+                                 @Value("${aegis.spending.backfill.parallelism:4}") int backfillParallelism) {
+        this.spendingRollupRepository = spendingRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillChunkAccounts = Math.max(1, backfillChunkAccounts);
+        this.backfillParallelism = Math.max(1, backfillParallelism);
+    }
+    
+    @Transactional
+    public void recordCompleted(Collection<Transfer> transfers) {
+        record(transfers, 1);
+    }
+    
+    @Transactional
+    public void recordReversed(Transfer transfer) {
+        record(List.of(transfer), -1);
+    }
+    
+    private void record(Collection<Transfer> transfers, int sign) {
+        // One upsert per rollup row, in key order so concurrent batches lock rows in the same order
+        Map<Key, BigDecimal[]> deltas = new TreeMap<>(KEY_ORDER);
+        for (Transfer transfer : transfers) {
+            Key key = new Key(transfer.getFromAccount().getUser().getId(), transfer.getFromAccount().getId(),
+                    transfer.getCategory() != null ? transfer.getCategory() : SpendingRollup.UNCATEGORIZED,
+                    transfer.getCreatedAt().toLocalDate());
+            BigDecimal[] delta = deltas.computeIfAbsent(key, k -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+            delta[0] = delta[0].add(transfer.getAmount());
+            delta[1] = delta[1].add(BigDecimal.ONE);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((key, delta) -> spendingRollupRepository.addSpending(key.userId(), key.accountId(),
+                key.category(), key.day(), sign < 0 ? delta[0].negate() : delta[0],
+                sign * delta[1].longValue(), now));
+    }
+    
+    /**
+     * Spending by category for a month (or a whole year when month is null, with a per-month
+     * split), optionally for one account.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSpending(Long userId, Long accountId, int year, Integer month) {
+        if (month != null && (month < 1 || month > 12)) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        LocalDate startDay = month != null ? YearMonth.of(year, month).atDay(1) : LocalDate.of(year, 1, 1);
+        LocalDate endDay = month != null ? YearMonth.of(year, month).atEndOfMonth() : LocalDate.of(year, 12, 31);
+        
+        Map<String, Object> spending = new LinkedHashMap<>();
+        spending.put("period", month != null ? YearMonth.of(year, month).toString() : String.valueOf(year));
+        spending.put("accountId", accountId);
+        BigDecimal total = BigDecimal.ZERO;
+        long count = 0;
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (Object[] row : spendingRollupRepository.sumByCategory(userId, accountId, startDay, endDay)) {
+            categories.add(entry("category", row[0], (BigDecimal) row[1], (Long) row[2]));
+            total = total.add((BigDecimal) row[1]);
+            count += (Long) row[2];
+        }
+        spending.put("total", total);
+        spending.put("count", count);
+        spending.put("categories", categories);
+        if (month == null) {
+            List<Map<String, Object>> months = new ArrayList<>();
+            for (Object[] row : spendingRollupRepository.sumByMonth(userId, accountId, startDay, endDay)) {
+                months.add(entry("month", row[0], (BigDecimal) row[1], (Long) row[2]));
+            }
+            spending.put("months", months);
+        }
+        return spending;
+    }
+    
+    /**
+     * Rebuilds every rollup from the completed transfers. Source accounts are split into id
+     * ranges that are rebuilt in parallel, each in its own transaction (delete the range's rows,
+     * then one grouped INSERT ... SELECT). Ranges never share rollup rows, and the insert reads
+     * the transfer rows with locks, so live completions in a range either land before the
+     * rebuild (and are recounted) or wait for it.
+     */
+    public Map<String, Object> backfill() {
+        long maxAccountId = spendingRollupRepository.findMaxAccountId();
+        ExecutorService pool = Executors.newFixedThreadPool(backfillParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "spending-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger rollups = new AtomicInteger();
+        List<Future<?>> chunks = new ArrayList<>();
+        try {
+            for (long from = 1; from <= maxAccountId; from += backfillChunkAccounts) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + backfillChunkAccounts - 1, maxAccountId);
+                chunks.add(pool.submit(() -> rollups.addAndGet(rebuild(chunkFrom, chunkTo))));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Spending backfill interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Spending backfill failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Rebuilt {} spending rollups for accounts up to {} in {} chunks", rollups.get(), maxAccountId, chunks.size());
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("chunks", chunks.size());
+        result.put("rollups", rollups.get());
+        return result;
+    }
+    
+    private int rebuild(long fromAccountId, long toAccountId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    spendingRollupRepository.deleteForAccounts(fromAccountId, toAccountId);
+                    return spendingRollupRepository.insertForAccounts(fromAccountId, toAccountId, LocalDateTime.now());
+                });
+            } catch (ConcurrencyFailureException e) {
+                // Deadlock with a live completion in the same range: the range is simply rebuilt again
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private static Map<String, Object> entry(String name, Object value, BigDecimal amount, Long count) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put(name, value);
+        entry.put("amount", amount);
+        entry.put("count", count);
+        return entry;
+    }
+    
+    private record Key(Long userId, Long accountId, String category, LocalDate day) {}
+}
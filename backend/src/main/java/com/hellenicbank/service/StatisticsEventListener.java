@@ -0,0 +1,123 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.Card;
+import com.hellenicbank.entity.Loan;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Feeds StatisticsService from Hibernate's post-commit events, so every service-layer insert,
+ * status/type change and delete is counted once its transaction has committed (rolled-back
+ * work never is). Guarded status transitions are seen too: TransferStateMachine updates the
+ * managed entity after its compare-and-set, and the flush reports the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatisticsEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    
+    // Tracked entities and the properties that place a row in a bucket (any of them may be absent)
+    private static final Map<Class<?>, Tracked> TRACKED = Map.of(
+            User.class, new Tracked(StatisticsService.Kind.USERS, null, "role", null),
+            Account.class, new Tracked(StatisticsService.Kind.ACCOUNTS, "status", "type", null),
+            Card.class, new Tracked(StatisticsService.Kind.CARDS, "status", "type", null),
+            Loan.class, new Tracked(StatisticsService.Kind.LOANS, "status", null, "principal"),
+            Transfer.class, new Tracked(StatisticsService.Kind.TRANSFERS, "status", "type", "amount"));
+    
+    private final EntityManagerFactory entityManagerFactory;
+    private final StatisticsService statisticsService;
+    
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return TRACKED.containsKey(persister.getMappedClass());
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getPersister(), event.getState(), 1);
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Updated without a loaded snapshot; left to the next reconcile
+            return;
+        }
+        Tracked tracked = TRACKED.get(event.getPersister().getMappedClass());
+        if (tracked == null || tracked.sameBucket(event.getPersister(), oldState, event.getState())) {
+            return;
+        }
+        record(event.getPersister(), oldState, -1);
+        record(event.getPersister(), event.getState(), 1);
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getPersister(), event.getDeletedState(), -1);
+    }
+    
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+    
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+    
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+    
+    private void record(EntityPersister persister, Object[] state, int count) {
+        Tracked tracked = TRACKED.get(persister.getMappedClass());
+        if (tracked == null || state == null) {
+            return;
+        }
+        statisticsService.record(tracked.kind(), tracked.value(persister, state, tracked.statusProperty()),
+                tracked.value(persister, state, tracked.typeProperty()), count,
+                (BigDecimal) tracked.value(persister, state, tracked.amountProperty()));
+    }
+    
+    private record Tracked(StatisticsService.Kind kind, String statusProperty, String typeProperty, String amountProperty) {
+        
+        Object value(EntityPersister persister, Object[] state, String property) {
+            return property == null ? null : state[persister.getPropertyIndex(property)];
+        }
+        
+        boolean sameBucket(EntityPersister persister, Object[] oldState, Object[] newState) {
+            return Objects.equals(value(persister, oldState, statusProperty), value(persister, newState, statusProperty))
+                    && Objects.equals(value(persister, oldState, typeProperty), value(persister, newState, typeProperty))
+                    && Objects.equals(value(persister, oldState, amountProperty), value(persister, newState, amountProperty));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.CardRepository;
+import com.hellenicbank.repository.LoanRepository;
+import com.hellenicbank.repository.TransferRepository;
+import com.hellenicbank.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Admin dashboard counters: how many accounts, cards, loans and transfers there are per
+ * (status, type), with the principal/amount totals for loans and transfers, and how many users
+ * per role.
+ * StatisticsEventListener applies every committed insert, status/type change and delete as a
+ * delta, so reading the snapshot costs the same however large the tables are. Changes the
+ * listener cannot see (bulk deletes, other nodes) are corrected by a periodic reconcile that
+ * reloads each table with one grouped query. The queries read one REPEATABLE READ
+ * snapshot, so the tables are counted at the same instant. Deltas committed after that snapshot
+ * but before the swap are not replayed (there is no telling which of them the snapshot already
+ * saw), so the counters may lag by those until the next reconcile.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatisticsService {
+    
+    public enum Kind { USERS, ACCOUNTS, CARDS, LOANS, TRANSFERS }
+    
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final CardRepository cardRepository;
+    private final LoanRepository loanRepository;
+    private final TransferRepository transferRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    // Deltas take the read lock (they only touch their own tally); reconcile swaps the tallies under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<Kind, Map<Bucket, Tally>> tallies;
+    private volatile LocalDateTime reconciledAt;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (tallies == null) {
+            reconcile();
+        }
+    }
+    
+    /**
+     * Replaces the counters with a fresh grouped count of each table.
+     */
+    @Scheduled(initialDelayString = "${aegis.stats.reconcile-interval-ms:300000}",
+               fixedDelayString = "${aegis.stats.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Map<Kind, Map<Bucket, Tally>> fresh = transaction.execute(status -> query());
+        
+        lock.writeLock().lock();
+        try {
+            if (tallies != null) {
+                logDrift(tallies, fresh);
+            }
+            tallies = fresh;
+            reconciledAt = LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Called after commit for every tracked change; count is +1 (insert, or the new bucket of an
+     * update) or -1 (delete, or the old bucket).
+     */
+    void record(Kind kind, Object status, Object type, int count, BigDecimal amount) {
+        Delta delta = new Delta(kind, new Bucket(name(status), name(type)), count, amount);
+        lock.readLock().lock();
+        try {
+            Map<Kind, Map<Bucket, Tally>> current = tallies;
+            // Before the first reconcile there is nothing to update; its query counts the row anyway
+            if (current != null) {
+                apply(current, delta);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long count(Kind kind, Object status) {
+        return totals(kind, status).count;
+    }
+    
+    public BigDecimal amount(Kind kind, Object status) {
+        return totals(kind, status).amount;
+    }
+    
+    /**
+     * Everything at once, for GET /api/admin/stats.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Kind kind : Kind.values()) {
+            Map<String, Object> byStatus = new LinkedHashMap<>();
+            Map<String, Object> byType = new LinkedHashMap<>();
+            Tally total = new Tally();
+            for (Map.Entry<Bucket, Tally> entry : tallies(kind).entrySet()) {
+                Tally tally = entry.getValue().copy();
+                total.add(tally.count, tally.amount);
+                if (entry.getKey().status() != null) {
+                    merge(byStatus, entry.getKey().status(), tally);
+                }
+                if (entry.getKey().type() != null) {
+                    merge(byType, entry.getKey().type(), tally);
+                }
+            }
+            Map<String, Object> section = new LinkedHashMap<>(total.toMap());
+            if (!byStatus.isEmpty()) {
+                section.put("byStatus", byStatus);
+            }
+            if (!byType.isEmpty()) {
+                section.put("byType", byType);
+            }
+            snapshot.put(kind.name().toLowerCase(Locale.ROOT), section);
+        }
+        snapshot.put("reconciledAt", reconciledAt);
+        return snapshot;
+    }
+    
+    private Tally totals(Kind kind, Object status) {
+        Tally total = new Tally();
+        String statusName = name(status);
+        tallies(kind).forEach((bucket, tally) -> {
+            if (Objects.equals(bucket.status(), statusName)) {
+                Tally copy = tally.copy();
+                total.add(copy.count, copy.amount);
+            }
+        });
+        return total;
+    }
+    
+    private Map<Bucket, Tally> tallies(Kind kind) {
+        load();
+        return tallies.get(kind);
+    }
+    
+    private Map<Kind, Map<Bucket, Tally>> query() {
+        Map<Kind, Map<Bucket, Tally>> fresh = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            fresh.put(kind, new ConcurrentHashMap<>());
+        }
+        // Rows are (status, type, count) or (status, type, count, sum); loans have no type, users only a role
+        for (Object[] row : userRepository.countGroupedByRole()) {
+            fresh.get(Kind.USERS).put(new Bucket(null, name(row[0])), new Tally((Long) row[1], null));
+        }
+        for (Object[] row : accountRepository.countGroupedByStatusAndType()) {
+            fresh.get(Kind.ACCOUNTS).put(new Bucket(name(row[0]), name(row[1])), new Tally((Long) row[2], null));
+        }
+        for (Object[] row : cardRepository.countGroupedByStatusAndType()) {
+            fresh.get(Kind.CARDS).put(new Bucket(name(row[0]), name(row[1])), new Tally((Long) row[2], null));
+        }
+        for (Object[] row : loanRepository.summarizeGroupedByStatus()) {
+            fresh.get(Kind.LOANS).put(new Bucket(name(row[0]), null), new Tally((Long) row[1], (BigDecimal) row[2]));
+        }
+        for (Object[] row : transferRepository.summarizeGroupedByStatusAndType()) {
+            fresh.get(Kind.TRANSFERS).put(new Bucket(name(row[0]), name(row[1])), new Tally((Long) row[2], (BigDecimal) row[3]));
+        }
+        return fresh;
+    }
+    
+    private static void apply(Map<Kind, Map<Bucket, Tally>> target, Delta delta) {
+        target.get(delta.kind())
+                .computeIfAbsent(delta.bucket(), bucket -> new Tally())
+                .add(delta.count(), delta.amount() == null ? null : delta.count() < 0 ? delta.amount().negate() : delta.amount());
+    }
+    
+    private static void logDrift(Map<Kind, Map<Bucket, Tally>> current, Map<Kind, Map<Bucket, Tally>> fresh) {
+        for (Kind kind : Kind.values()) {
+            long counted = current.get(kind).values().stream().mapToLong(tally -> tally.copy().count).sum();
+            long actual = fresh.get(kind).values().stream().mapToLong(tally -> tally.copy().count).sum();
+            if (counted != actual) {
+                log.info("Statistics for {} drifted by {} rows since the last reconcile", kind, actual - counted);
+            }
+        }
+    }
+    
+    private static void merge(Map<String, Object> target, String key, Tally tally) {
+        target.compute(key, (k, existing) -> {
+            Tally sum = new Tally();
+            sum.add(tally.count, tally.amount);
+            if (existing != null) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> previous = (Map<String, Object>) existing;
+                sum.add((Long) previous.get("count"), (BigDecimal) previous.get("amount"));
+            }
+            return sum.toMap();
+        });
+    }
+    
+    private static String name(Object value) {
+        return value == null ? null : value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+    
+    private record Bucket(String status, String type) {}
+    
+    private record Delta(Kind kind, Bucket bucket, int count, BigDecimal amount) {}
+    
+    private static final class Tally {
+        private long count;
+        private BigDecimal amount;
+        
+        Tally() {}
+        
+        Tally(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+        
+        synchronized void add(long count, BigDecimal amount) {
+            this.count += count;
+            if (amount != null) {
+                this.amount = this.amount == null ? amount : this.amount.add(amount);
+            }
+        }
+        
+        synchronized Tally copy() {
+            return new Tally(count, amount);
+        }
+        
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            if (amount != null) {
+                map.put("amount", amount);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.repository.TransferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background settlement of PENDING transfers.
+ * A poller feeds pending transfer ids into a bounded queue; a dispatcher drains it,
+ * groups the transfers by source account and hands micro-batches to a bounded worker
+ * pool, where each batch is applied in a single transaction.
+ * A batch that rolls back for a non-transient reason is split in halves until the failing
+ * transfer is alone; a transfer that still fails on its own after max-attempts polls is
+ * marked FAILED, so one poison transfer cannot hold back its neighbours or be retried forever.
+ */
+@Component
+@ConditionalOnProperty(name = "aegis.processing.enabled", havingValue = "true")
+@Slf4j
+public class TransferProcessingEngine {
+
+    private final TransferService transferService;
+    private final TransferRepository transferRepository;
+    private final AccountPartitionExecutor accountPartitionExecutor;
+
+    private final int batchSize;
+    private final int maxPerPoll;
+    private final BlockingQueue<PendingTransfer> queue;
+    // Ids queued or being processed, so the poller does not enqueue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Failed solo attempts per transfer; cleared when it settles or is given up on
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final int maxAttempts;
+    private final ThreadPoolExecutor workers;
+    private final AtomicInteger activeBatches = new AtomicInteger();
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter batchErrorCounter;
+    private final Counter givenUpCounter;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    public TransferProcessingEngine(TransferService transferService,
+                                    TransferRepository transferRepository,
+                                    AccountPartitionExecutor accountPartitionExecutor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${aegis.processing.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${aegis.processing.batch-size:100}") int batchSize,
+                                    @Value("${aegis.processing.workers:4}") int workerCount,
+                                    @Value("${aegis.processing.max-per-poll:1000}") int maxPerPoll,
+                                    @Value("${aegis.processing.max-attempts:3}") int maxAttempts) {
+        this.transferService = transferService;
+        this.transferRepository = transferRepository;
+        this.accountPartitionExecutor = accountPartitionExecutor;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPerPoll = Math.max(1, maxPerPoll);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+
+        int poolSize = Math.max(1, workerCount);
+        AtomicInteger threadCounter = new AtomicInteger();
+        // Bounded hand-off; when full the dispatcher runs the batch itself, which throttles draining
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transfer-worker-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("aegis.processing.queue.depth", queue, BlockingQueue::size)
+                .description("Pending transfers waiting to be dispatched")
+                .register(meterRegistry);
+        Gauge.builder("aegis.processing.batches.active", activeBatches, AtomicInteger::get)
+                .description("Micro-batches currently being applied")
+                .register(meterRegistry);
+        this.completedCounter = Counter.builder("aegis.processing.transfers")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("aegis.processing.transfers")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.batchErrorCounter = Counter.builder("aegis.processing.batch.errors")
+                .description("Micro-batches rolled back and left for the next poll")
+                .register(meterRegistry);
+        this.givenUpCounter = Counter.builder("aegis.processing.transfers.given.up")
+                .description("Transfers marked FAILED after failing on their own max-attempts times")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("aegis.processing.batch.duration")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("aegis.processing.batch.size")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "transfer-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("Transfer processing engine started (batch size {}, {} workers)", batchSize, workers.getCorePoolSize());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${aegis.processing.poll-interval-ms:1000}")
+    public void poll() {
+        int room = Math.min(queue.remainingCapacity(), maxPerPoll);
+        if (room <= 0) {
+            return;
+        }
+        List<Object[]> pending = transferRepository.findIdAndSourceAccountByStatus(
+                Transfer.TransferStatus.PENDING, PageRequest.of(0, room + inFlight.size()));
+        for (Object[] row : pending) {
+            Long transferId = (Long) row[0];
+            if (inFlight.add(transferId) && !queue.offer(new PendingTransfer(transferId, (Long) row[1]))) {
+                inFlight.remove(transferId);
+                break;
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<PendingTransfer> drained = new ArrayList<>();
+                drained.add(queue.take());
+                queue.drainTo(drained, maxPerPoll - 1);
+                dispatch(drained);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Transfer dispatch failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void dispatch(List<PendingTransfer> drained) {
+        // Group by source account so each batch touches one hot row at most once per lock
+        Map<Long, List<Long>> bySourceAccount = new LinkedHashMap<>();
+        for (PendingTransfer pending : drained) {
+            bySourceAccount.computeIfAbsent(pending.fromAccountId(), id -> new ArrayList<>()).add(pending.transferId());
+        }
+        for (Map.Entry<Long, List<Long>> entry : bySourceAccount.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> batch = List.copyOf(ids.subList(from, Math.min(from + batchSize, ids.size())));
+                if (accountPartitionExecutor.isEnabled()) {
+                    // Single-writer mode: the source account's partition applies its batches in order
+                    accountPartitionExecutor.submit(entry.getKey(), () -> {
+                        applyBatch(batch);
+                        return null;
+                    }).exceptionally(error -> {
+                        batchErrorCounter.increment();
+                        batch.forEach(inFlight::remove);
+                        return null;
+                    });
+                } else {
+                    workers.execute(() -> applyBatch(batch));
+                }
+            }
+        }
+    }
+
+    private void applyBatch(List<Long> batch) {
+        activeBatches.incrementAndGet();
+        try {
+            settle(batch);
+        } finally {
+            batch.forEach(inFlight::remove);
+            activeBatches.decrementAndGet();
+        }
+    }
+
+    private void settle(List<Long> batch) {
+        try {
+            List<Transfer> processed = batchTimer.recordCallable(() -> transferService.processPendingBatch(batch));
+            batchSizeSummary.record(batch.size());
+            for (Transfer transfer : processed) {
+                failedAttempts.remove(transfer.getId());
+                if (transfer.getStatus() == Transfer.TransferStatus.COMPLETED) {
+                    completedCounter.increment();
+                } else {
+                    failedCounter.increment();
+                }
+            }
+        } catch (Exception e) {
+            batchErrorCounter.increment();
+            if (e instanceof TransientDataAccessException || e instanceof TransactionException) {
+                // Database trouble, not the transfers: the whole batch is retried on the next poll
+                log.warn("Transfer batch {} rolled back, will retry on next poll: {}", batch, e.getMessage());
+            } else if (batch.size() > 1) {
+                int half = batch.size() / 2;
+                settle(batch.subList(0, half));
+                settle(batch.subList(half, batch.size()));
+            } else {
+                giveUpAfterMaxAttempts(batch.get(0), e);
+            }
+        }
+    }
+
+    private void giveUpAfterMaxAttempts(Long transferId, Exception error) {
+        int attempts = failedAttempts.merge(transferId, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.warn("Transfer {} failed (attempt {} of {}), will retry on next poll: {}",
+                    transferId, attempts, maxAttempts, error.getMessage());
+            return;
+        }
+        failedAttempts.remove(transferId);
+        try {
+            if (transferService.failPendingTransfer(transferId)) {
+                givenUpCounter.increment();
+                failedCounter.increment();
+                log.error("Transfer {} marked FAILED after {} failed attempts: {}", transferId, attempts, error.getMessage(), error);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not mark transfer {} FAILED, will retry on next poll: {}", transferId, e.getMessage());
+        }
+    }
+
+    private record PendingTransfer(Long transferId, Long fromAccountId) {}
+}
@@ -0,0 +1,62 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.repository.AccountRepository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Accounts involved in a transfer-creation request, resolved with at most one query and reused
+ * for every ownership, funds and destination check made while handling that request.
+ */
+public class TransferResolutionContext {
+
+    private final Map<Long, Account> accountsById = new HashMap<>();
+    private final Map<String, Account> accountsByIban = new HashMap<>();
+
+    private TransferResolutionContext(List<Account> accounts) {
+        for (Account account : accounts) {
+            accountsById.put(account.getId(), account);
+            accountsByIban.put(account.getIban(), account);
+        }
+    }
+
+    public static TransferResolutionContext load(AccountRepository accountRepository, IbanDirectory ibanDirectory,
+                                                 Collection<Long> accountIds, Collection<String> ibans) {
+        // IBANs are translated to ids first, so external ones never reach the database
+        Set<Long> ids = new HashSet<>(accountIds);
+        for (String iban : ibans) {
+            ibanDirectory.resolveAccountId(iban).ifPresent(ids::add);
+        }
+        return new TransferResolutionContext(ids.isEmpty() ? List.of() : accountRepository.findAllById(ids));
+    }
+
+    public Optional<Account> account(Long accountId) {
+        return Optional.ofNullable(accountId != null ? accountsById.get(accountId) : null);
+    }
+
+    public Optional<Account> accountByIban(String iban) {
+        return Optional.ofNullable(iban != null ? accountsByIban.get(iban) : null);
+    }
+
+    // The owner id is read from the foreign key, so this never loads the User
+    public boolean isOwnedBy(Long accountId, Long userId) {
+        return account(accountId)
+                .map(account -> account.getUser().getId().equals(userId))
+                .orElse(false);
+    }
+
+    public boolean canWithdraw(Long accountId, BigDecimal amount) {
+        return account(accountId)
+                .map(account -> account.getBalance().compareTo(amount) >= 0 &&
+                               account.getStatus() == Account.AccountStatus.ACTIVE)
+                .orElse(false);
+    }
+}
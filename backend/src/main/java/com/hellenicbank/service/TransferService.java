@@ -1,5 +1,8 @@
 package com.hellenicbank.service;
 
+import com.hellenicbank.dto.BatchTransferResult;
+import com.hellenicbank.dto.CursorPage;
+import com.hellenicbank.dto.TransferFilter;
 import com.hellenicbank.dto.TransferRequest;
 import com.hellenicbank.dto.TransferResponse;
 import com.hellenicbank.dto.UpdateTransferRequest;
@@ -8,15 +11,41 @@ import com.hellenicbank.entity.Transfer;
 import com.hellenicbank.repository.AccountRepository;
 import com.hellenicbank.repository.TransferRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,25 +55,48 @@ public class TransferService {
     private final TransferRepository transferRepository;
     private final AccountService accountService;
     private final AccountRepository accountRepository;
+    private final AccountLockManager accountLockManager;
+    private final LedgerService ledgerService;
+    private final IbanDirectory ibanDirectory;
+    private final TransferStateMachine transferStateMachine;
+    private final KeysetPaging keysetPaging;
+    private final FullTextSearch fullTextSearch;
+    private final SpendingRollupService spendingRollupService;
+    private final PlatformTransactionManager transactionManager;
     
     private static final BigDecimal EXTERNAL_BANK_FEE = new BigDecimal("0.50");
+    private static final int STATEMENT_BUFFER_SIZE = 64 * 1024;
+    
+    // Sort keys of GET /api/transfers/filter; the first one is the default
+    private static final List<KeysetPaging.SortKey<Transfer, ?>> FILTER_SORT_KEYS = List.of(
+            new KeysetPaging.SortKey<Transfer, LocalDateTime>("createdAt", LocalDateTime::parse, Transfer::getCreatedAt),
+            new KeysetPaging.SortKey<Transfer, BigDecimal>("amount", BigDecimal::new, Transfer::getAmount));
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    
+    @Value("${aegis.transfers.batch.max-size:5000}")
+    private int maxBatchSize;
     
     public Transfer createTransfer(TransferRequest request, Long userId) {
+        // Source, optional destination account and destination IBAN resolved in one query
+        TransferResolutionContext context = TransferResolutionContext.load(accountRepository, ibanDirectory,
+                idsOf(request.getFromAccountId(), request.getToAccountId()),
+                request.getToIban() != null ? List.of(request.getToIban()) : List.of());
+        
         // Verify account ownership
-        if (!accountService.isAccountOwnedByUser(request.getFromAccountId(), userId)) {
+        if (!context.isOwnedBy(request.getFromAccountId(), userId)) {
             throw new IllegalArgumentException("Account not found or not owned by user");
         }
         
-        Account fromAccount = accountService.findById(request.getFromAccountId())
+        Account fromAccount = context.account(request.getFromAccountId())
                 .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
         
         // Determine transfer type and calculate fees
-        Transfer.TransferType transferType = determineTransferType(request, userId);
+        Transfer.TransferType transferType = determineTransferType(request, userId, context);
         BigDecimal fee = calculateFee(transferType);
         BigDecimal totalAmount = request.getAmount().add(fee);
         
         // Check if account can withdraw total amount (including fee)
-        if (!accountService.canWithdraw(request.getFromAccountId(), totalAmount)) {
+        if (!context.canWithdraw(request.getFromAccountId(), totalAmount)) {
             throw new IllegalArgumentException("Insufficient funds or account frozen");
         }
         
@@ -52,6 +104,7 @@ public class TransferService {
         Transfer transfer = new Transfer();
         transfer.setFromAccount(fromAccount);
         transfer.setToIban(request.getToIban());
+        transfer.setToAccountId(context.accountByIban(request.getToIban()).map(Account::getId).orElse(null));
         transfer.setAmount(request.getAmount());
         transfer.setFee(fee);
         transfer.setTotalAmount(totalAmount);
@@ -76,21 +129,24 @@ public class TransferService {
     
     public Transfer createInterAccountTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount, 
                                              String description, String category, Long userId) {
+        TransferResolutionContext context = TransferResolutionContext.load(accountRepository, ibanDirectory,
+                idsOf(fromAccountId, toAccountId), List.of());
+        
         // Verify both accounts are owned by the user
-        if (!accountService.isAccountOwnedByUser(fromAccountId, userId)) {
+        if (!context.isOwnedBy(fromAccountId, userId)) {
             throw new IllegalArgumentException("Source account not found or not owned by user");
         }
-        if (!accountService.isAccountOwnedByUser(toAccountId, userId)) {
+        if (!context.isOwnedBy(toAccountId, userId)) {
             throw new IllegalArgumentException("Destination account not found or not owned by user");
         }
         
-        Account fromAccount = accountService.findById(fromAccountId)
+        Account fromAccount = context.account(fromAccountId)
                 .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
-        Account toAccount = accountService.findById(toAccountId)
+        Account toAccount = context.account(toAccountId)
                 .orElseThrow(() -> new IllegalArgumentException("Destination account not found"));
         
         // Check if account can withdraw amount
-        if (!accountService.canWithdraw(fromAccountId, amount)) {
+        if (!context.canWithdraw(fromAccountId, amount)) {
             throw new IllegalArgumentException("Insufficient funds or account frozen");
         }
         
@@ -98,6 +154,7 @@ public class TransferService {
         Transfer transfer = new Transfer();
         transfer.setFromAccount(fromAccount);
         transfer.setToIban(toAccount.getIban());
+        transfer.setToAccountId(toAccount.getId());
         transfer.setAmount(amount);
         transfer.setFee(BigDecimal.ZERO); // No fee for inter-account transfers
         transfer.setTotalAmount(amount);
@@ -109,17 +166,108 @@ public class TransferService {
         return transferRepository.save(transfer);
     }
     
-    private Transfer.TransferType determineTransferType(TransferRequest request, Long userId) {
+    // BATCH operations
+    public List<BatchTransferResult> createTransfersBatch(List<TransferRequest> requests, Long userId) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch exceeds maximum size of " + maxBatchSize);
+        }
+        return createTransfers(requests, Collections.nCopies(requests.size(), userId));
+    }
+    
+    // Transfers fired by due scheduled transfers (see ScheduledTransferService), each created
+    // on behalf of the owner that scheduled it. Failures are reported per item.
+    public List<BatchTransferResult> createScheduledTransfers(List<TransferRequest> requests, List<Long> ownerIds) {
+        return createTransfers(requests, ownerIds);
+    }
+    
+    private List<BatchTransferResult> createTransfers(List<TransferRequest> requests, List<Long> ownerIds) {
+        // Preload every referenced account up front, by id and by IBAN, in one query
+        Set<Long> accountIds = new HashSet<>();
+        Set<String> ibans = new HashSet<>();
+        for (TransferRequest request : requests) {
+            if (request == null) continue;
+            if (request.getFromAccountId() != null) accountIds.add(request.getFromAccountId());
+            if (request.getToAccountId() != null) accountIds.add(request.getToAccountId());
+            if (request.getToIban() != null) ibans.add(request.getToIban());
+        }
+        TransferResolutionContext context = TransferResolutionContext.load(accountRepository, ibanDirectory, accountIds, ibans);
+        
+        // Funds still available per source account as the batch consumes them
+        Map<Long, BigDecimal> available = new HashMap<>();
+        
+        BatchTransferResult[] results = new BatchTransferResult[requests.size()];
+        List<Transfer> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                accepted.add(buildBatchTransfer(requests.get(i), ownerIds.get(i), context, available));
+                acceptedIndexes.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchTransferResult.failure(i, e.getMessage());
+            }
+        }
+        
+        // Pooled ids + hibernate.jdbc.batch_size turn this into batched JDBC inserts
+        List<Transfer> saved = transferRepository.saveAll(accepted);
+        for (int j = 0; j < saved.size(); j++) {
+            int index = acceptedIndexes.get(j);
+            results[index] = BatchTransferResult.success(index, new TransferResponse(saved.get(j)));
+        }
+        
+        return Arrays.asList(results);
+    }
+    
+    private Transfer buildBatchTransfer(TransferRequest request, Long userId, TransferResolutionContext context,
+                                        Map<Long, BigDecimal> available) {
+        if (request == null || request.getFromAccountId() == null) {
+            throw new IllegalArgumentException("From account ID is required");
+        }
+        if (request.getToIban() == null || request.getToIban().isBlank()) {
+            throw new IllegalArgumentException("To IBAN is required");
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(new BigDecimal("0.01")) < 0) {
+            throw new IllegalArgumentException("Amount must be greater than 0");
+        }
+        
+        if (!context.isOwnedBy(request.getFromAccountId(), userId)) {
+            throw new IllegalArgumentException("Account not found or not owned by user");
+        }
+        Account fromAccount = context.account(request.getFromAccountId()).orElseThrow();
+        
+        Transfer.TransferType transferType = determineTransferType(request, userId, context);
+        BigDecimal fee = calculateFee(transferType);
+        BigDecimal totalAmount = request.getAmount().add(fee);
+        
+        BigDecimal remaining = available.getOrDefault(fromAccount.getId(), fromAccount.getBalance());
+        if (fromAccount.getStatus() != Account.AccountStatus.ACTIVE || remaining.compareTo(totalAmount) < 0) {
+            throw new IllegalArgumentException("Insufficient funds or account frozen");
+        }
+        available.put(fromAccount.getId(), remaining.subtract(totalAmount));
+        
+        Transfer transfer = new Transfer();
+        transfer.setFromAccount(fromAccount);
+        transfer.setToIban(request.getToIban());
+        transfer.setToAccountId(context.accountByIban(request.getToIban()).map(Account::getId).orElse(null));
+        transfer.setAmount(request.getAmount());
+        transfer.setFee(fee);
+        transfer.setTotalAmount(totalAmount);
+        transfer.setDescription(request.getDescription());
+        transfer.setCategory(request.getCategory());
+        transfer.setType(transferType);
+        transfer.setStatus(Transfer.TransferStatus.PENDING);
+        return transfer;
+    }
+    
+    private Transfer.TransferType determineTransferType(TransferRequest request, Long userId, TransferResolutionContext context) {
         // Check if it's an inter-account transfer (user's own accounts)
         if (request.getToAccountId() != null) {
-            if (accountService.isAccountOwnedByUser(request.getToAccountId(), userId)) {
+            if (context.isOwnedBy(request.getToAccountId(), userId)) {
                 return Transfer.TransferType.INTER_ACCOUNT;
             }
         }
         
         // Check if it's to another Aegis Bank account
-        Optional<Account> toAccount = accountRepository.findByIban(request.getToIban());
-        if (toAccount.isPresent()) {
+        if (context.accountByIban(request.getToIban()).isPresent()) {
             return Transfer.TransferType.INTERNAL;
         }
         
@@ -127,6 +275,16 @@ public class TransferService {
         return Transfer.TransferType.EXTERNAL;
     }
     
+    private static List<Long> idsOf(Long... ids) {
+        List<Long> present = new ArrayList<>(ids.length);
+        for (Long id : ids) {
+            if (id != null) {
+                present.add(id);
+            }
+        }
+        return present;
+    }
+    
     private BigDecimal calculateFee(Transfer.TransferType type) {
         switch (type) {
             case EXTERNAL:
@@ -138,6 +296,8 @@ public class TransferService {
         }
     }
     
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+               backoff = @Backoff(delay = 50, multiplier = 2))
     public Transfer processTransfer(Long transferId, Long userId) {
         Transfer transfer = transferRepository.findById(transferId)
                 .orElseThrow(() -> new IllegalArgumentException("Transfer not found"));
@@ -147,77 +307,45 @@ public class TransferService {
             throw new IllegalArgumentException("You can only process your own transfers");
         }
         
-        if (transfer.getStatus() != Transfer.TransferStatus.PENDING) {
-            throw new IllegalArgumentException("Transfer is not in pending status");
-        }
-        
-        try {
-            // Deduct total amount (including fee) from source account
-            Account fromAccount = transfer.getFromAccount();
-            BigDecimal newBalance = fromAccount.getBalance().subtract(transfer.getTotalAmount());
-            accountService.updateBalance(fromAccount.getId(), newBalance);
-            
-            // Handle different transfer types
-            switch (transfer.getType()) {
-                case INTER_ACCOUNT:
-                    // Transfer to user's own account
-                    processInterAccountTransfer(transfer);
-                    break;
-                case INTERNAL:
-                    // Transfer to another Aegis Bank account
-                    processInternalTransfer(transfer);
-                    break;
-                case EXTERNAL:
-                default:
-                    // External bank transfer - just deduct from source
-                    break;
-            }
-            
-            // Update transfer status
-            transfer.setStatus(Transfer.TransferStatus.COMPLETED);
-            return transferRepository.save(transfer);
-            
-        } catch (Exception e) {
-            transfer.setStatus(Transfer.TransferStatus.FAILED);
-            transferRepository.save(transfer);
-            throw new RuntimeException("Transfer processing failed", e);
-        }
+        return executeTransfer(transfer);
     }
     
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+               backoff = @Backoff(delay = 50, multiplier = 2))
     public Transfer processTransferAdmin(Long transferId) {
         Transfer transfer = transferRepository.findById(transferId)
                 .orElseThrow(() -> new IllegalArgumentException("Transfer not found"));
         
+        return executeTransfer(transfer);
+    }
+    
+    private Transfer executeTransfer(Transfer transfer) {
         if (transfer.getStatus() != Transfer.TransferStatus.PENDING) {
             throw new IllegalArgumentException("Transfer is not in pending status");
         }
         
+        // Claim the transfer before touching any balance; a concurrent call loses here with a conflict
+        transferStateMachine.transition(transfer, Transfer.TransferStatus.COMPLETED);
+        
         try {
-            // Deduct total amount (including fee) from source account
-            Account fromAccount = transfer.getFromAccount();
-            BigDecimal newBalance = fromAccount.getBalance().subtract(transfer.getTotalAmount());
-            accountService.updateBalance(fromAccount.getId(), newBalance);
+            // Resolve the destination first so both rows are locked together, in id order
+            Account destAccount = resolveLocalDestination(transfer);
+            accountLockManager.lockAccounts(transfer.getFromAccount().getId(),
+                    destAccount != null ? destAccount.getId() : null);
             
-            // Handle different transfer types
-            switch (transfer.getType()) {
-                case INTER_ACCOUNT:
-                    // Transfer to user's own account
-                    processInterAccountTransfer(transfer);
-                    break;
-                case INTERNAL:
-                    // Transfer to another Aegis Bank account
-                    processInternalTransfer(transfer);
-                    break;
-                case EXTERNAL:
-                default:
-                    // External bank transfer - just deduct from source
-                    break;
+            // Post the balanced journal legs: debit the source for the total amount (including fee),
+            // credit the destination - a local account for INTERNAL / INTER_ACCOUNT, external
+            // clearing otherwise. The conditional debit refuses to drive the balance negative.
+            if (!ledgerService.postTransfer(transfer, destAccount)) {
+                throw new IllegalArgumentException("Insufficient funds");
             }
+            spendingRollupService.recordCompleted(List.of(transfer));
             
-            // Update transfer status
-            transfer.setStatus(Transfer.TransferStatus.COMPLETED);
             return transferRepository.save(transfer);
             
+        } catch (ConcurrencyFailureException e) {
+            // Let lock/version conflicts propagate untouched so the call is retried
+            throw e;
         } catch (Exception e) {
             transfer.setStatus(Transfer.TransferStatus.FAILED);
             transferRepository.save(transfer);
@@ -225,26 +353,80 @@ public class TransferService {
         }
     }
     
-    private void processInterAccountTransfer(Transfer transfer) {
-        // Find the destination account
-        Optional<Account> toAccount = accountRepository.findByIban(transfer.getToIban());
-        if (toAccount.isPresent()) {
-            // Add amount to destination account
-            Account destAccount = toAccount.get();
-            BigDecimal newBalance = destAccount.getBalance().add(transfer.getAmount());
-            accountService.updateBalance(destAccount.getId(), newBalance);
+    // Settles a micro-batch of PENDING transfers in one transaction (see TransferProcessingEngine).
+    // Transfers that cannot be covered are marked FAILED without affecting the rest of the batch.
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+               backoff = @Backoff(delay = 50, multiplier = 2))
+    public List<Transfer> processPendingBatch(List<Long> transferIds) {
+        // Claim the transfers (in id order, before the accounts, like single processing);
+        // ones another caller got to first are skipped
+        List<Transfer> transfers = transferRepository.findAllById(transferIds).stream()
+                .filter(transfer -> transfer.getStatus() == Transfer.TransferStatus.PENDING)
+                .sorted(Comparator.comparing(Transfer::getId))
+                .filter(transfer -> transferStateMachine.tryTransition(transfer, Transfer.TransferStatus.COMPLETED))
+                .toList();
+        if (transfers.isEmpty()) {
+            return transfers;
+        }
+        
+        // Resolve local destinations like resolveLocalDestination (the stored account id, the IBAN
+        // only for transfers without one) and load them in one query, then lock every involved account at once
+        Map<Long, Long> destinationIds = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            if (transfer.getType() == Transfer.TransferType.EXTERNAL) {
+                continue;
+            }
+            Long destinationId = transfer.getToAccountId() != null ? transfer.getToAccountId()
+                    : ibanDirectory.resolveAccountId(transfer.getToIban()).orElse(null);
+            if (destinationId != null) {
+                destinationIds.put(transfer.getId(), destinationId);
+            }
+        }
+        Map<Long, Account> destinations = destinationIds.isEmpty() ? Map.of() :
+                accountRepository.findAllById(new HashSet<>(destinationIds.values())).stream()
+                        .collect(Collectors.toMap(Account::getId, Function.identity()));
+        
+        List<Long> lockIds = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            lockIds.add(transfer.getFromAccount().getId());
+        }
+        destinations.values().forEach(account -> lockIds.add(account.getId()));
+        accountLockManager.lockAccounts(lockIds.toArray(new Long[0]));
+        
+        List<Transfer> completed = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            Long destinationId = destinationIds.get(transfer.getId());
+            Account destAccount = destinationId != null ? destinations.get(destinationId) : null;
+            // The row is held by the claim, so the outcome can be set directly
+            if (ledgerService.postTransfer(transfer, destAccount)) {
+                completed.add(transfer);
+            } else {
+                transfer.setStatus(Transfer.TransferStatus.FAILED);
+            }
         }
+        spendingRollupService.recordCompleted(completed);
+        
+        return transferRepository.saveAll(transfers);
     }
     
-    private void processInternalTransfer(Transfer transfer) {
-        // Find the destination account
-        Optional<Account> toAccount = accountRepository.findByIban(transfer.getToIban());
-        if (toAccount.isPresent()) {
-            // Add amount to destination account
-            Account destAccount = toAccount.get();
-            BigDecimal newBalance = destAccount.getBalance().add(transfer.getAmount());
-            accountService.updateBalance(destAccount.getId(), newBalance);
+    // Gives up on a PENDING transfer that keeps failing in the background engine; false if it has moved on
+    public boolean failPendingTransfer(Long transferId) {
+        return transferRepository.findById(transferId)
+                .filter(transfer -> transfer.getStatus() == Transfer.TransferStatus.PENDING)
+                .map(transfer -> transferStateMachine.tryTransition(transfer, Transfer.TransferStatus.FAILED))
+                .orElse(false);
+    }
+    
+    private Account resolveLocalDestination(Transfer transfer) {
+        if (transfer.getType() == Transfer.TransferType.EXTERNAL) {
+            return null;
+        }
+        if (transfer.getToAccountId() != null) {
+            return accountRepository.findById(transfer.getToAccountId()).orElse(null);
         }
+        return ibanDirectory.resolveAccountId(transfer.getToIban())
+                .flatMap(accountRepository::findById)
+                .orElse(null);
     }
     
     public List<Transfer> getUserTransfers(Long userId) {
@@ -255,6 +437,10 @@ public class TransferService {
         return transferRepository.findAll();
     }
     
+    public CursorPage<Transfer> getTransfersPage(String cursor, Integer size) {
+        return keysetPaging.page(cursor, size, transferRepository::findPageAfter, Transfer::getCreatedAt, Transfer::getId);
+    }
+    
     public List<Transfer> getRecentTransfers(Long userId, int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         return transferRepository.findRecentTransfersByUserId(userId, startDate);
@@ -265,6 +451,23 @@ public class TransferService {
         return transferRepository.findRecentTransfers(startDate);
     }
     
+    /**
+     * The accounts whose balances processing or reversing the transfer changes: the source and,
+     * for a local destination, the destination (empty if the transfer does not exist).
+     */
+    public Optional<AccountPair> findAccountPair(Long transferId) {
+        return transferRepository.findAccountRoutingById(transferId).stream().findFirst().map(row -> {
+            Long destinationId = null;
+            if (row[3] != Transfer.TransferType.EXTERNAL) {
+                destinationId = row[1] != null ? (Long) row[1]
+                        : ibanDirectory.resolveAccountId((String) row[2]).orElse(null);
+            }
+            return new AccountPair((Long) row[0], destinationId);
+        });
+    }
+    
+    public record AccountPair(Long sourceAccountId, Long destinationAccountId) {}
+    
     public Optional<Transfer> findById(Long id) {
         return transferRepository.findById(id);
     }
@@ -273,12 +476,22 @@ public class TransferService {
         Transfer transfer = transferRepository.findById(transferId)
                 .orElseThrow(() -> new IllegalArgumentException("Transfer not found"));
         
-        transfer.setStatus(status);
+        // Completing and reversing move money: they go through process / reverse, which post
+        // the journal legs, never through a bare status change
+        if (status == Transfer.TransferStatus.COMPLETED) {
+            throw new IllegalArgumentException("Transfers are completed by processing them");
+        }
+        if (transfer.getStatus() == Transfer.TransferStatus.COMPLETED) {
+            throw new IllegalArgumentException("Completed transfers are undone by reversing them");
+        }
+        transferStateMachine.transition(transfer, status);
         return transferRepository.save(transfer);
     }
     
     public List<Transfer> getTransfersByStatus(Transfer.TransferStatus status) {
-        return transferRepository.findByStatus(status);
+        TransferFilter filter = new TransferFilter();
+        filter.setStatus(status);
+        return findTransfers(filter, null);
     }
     
     // UPDATE operations
@@ -295,6 +508,12 @@ public class TransferService {
         if (transfer.getStatus() != Transfer.TransferStatus.PENDING) {
             throw new IllegalArgumentException("Only pending transfers can be updated");
         }
+        if (request.getStatus() == Transfer.TransferStatus.COMPLETED) {
+            throw new IllegalArgumentException("Transfers are completed by processing them");
+        }
+        
+        // Keeps processing from debiting the old amount while this edit is in flight
+        transferStateMachine.hold(transfer);
         
         // Update fields
         if (request.getAmount() != null) {
@@ -320,13 +539,14 @@ public class TransferService {
             transfer.setCategory(request.getCategory());
         }
         
-        if (request.getStatus() != null) {
-            transfer.setStatus(request.getStatus());
+        if (request.getStatus() != null && request.getStatus() != transfer.getStatus()) {
+            transferStateMachine.transition(transfer, request.getStatus());
         }
         
         if (request.getToIban() != null && !request.getToIban().equals(transfer.getToIban())) {
             // Update IBAN and recalculate transfer type
             transfer.setToIban(request.getToIban());
+            transfer.setToAccountId(ibanDirectory.resolveAccountId(request.getToIban()).orElse(null));
             Transfer.TransferType newType = determineTransferTypeFromIban(request.getToIban(), userId);
             transfer.setType(newType);
             
@@ -354,6 +574,7 @@ public class TransferService {
             throw new IllegalArgumentException("Only pending transfers can be deleted");
         }
         
+        transferStateMachine.hold(transfer);
         transferRepository.delete(transfer);
     }
     
@@ -369,10 +590,13 @@ public class TransferService {
             throw new IllegalArgumentException("Cannot delete completed transfers. Use reversal process instead.");
         }
         
+        transferStateMachine.hold(transfer);
         transferRepository.delete(transfer);
     }
     
     // REVERSE operations (for completed transfers)
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+               backoff = @Backoff(delay = 50, multiplier = 2))
     public Transfer reverseTransfer(Long transferId) {
         Transfer transfer = transferRepository.findById(transferId)
                 .orElseThrow(() -> new IllegalArgumentException("Transfer not found"));
@@ -380,36 +604,27 @@ public class TransferService {
         if (transfer.getStatus() != Transfer.TransferStatus.COMPLETED) {
             throw new IllegalArgumentException("Only completed transfers can be reversed");
         }
+        if (transfer.getSettlementBatchId() != null) {
+            throw new IllegalArgumentException("Transfer has already been settled with the receiving bank");
+        }
+        
+        // Mark as reversed first: of two concurrent reversals only one gets past this
+        transferStateMachine.transition(transfer, Transfer.TransferStatus.FAILED);
         
         try {
-            // Reverse the transaction
-            Account fromAccount = transfer.getFromAccount();
-            BigDecimal newBalance = fromAccount.getBalance().add(transfer.getTotalAmount());
-            accountService.updateBalance(fromAccount.getId(), newBalance);
+            Account destAccount = resolveLocalDestination(transfer);
+            accountLockManager.lockAccounts(transfer.getFromAccount().getId(),
+                    destAccount != null ? destAccount.getId() : null);
             
-            // Handle different transfer types for reversal
-            switch (transfer.getType()) {
-                case INTER_ACCOUNT:
-                case INTERNAL:
-                    // Remove amount from destination account
-                    Optional<Account> toAccount = accountRepository.findByIban(transfer.getToIban());
-                    if (toAccount.isPresent()) {
-                        Account destAccount = toAccount.get();
-                        BigDecimal destNewBalance = destAccount.getBalance().subtract(transfer.getAmount());
-                        accountService.updateBalance(destAccount.getId(), destNewBalance);
-                    }
-                    break;
-                case EXTERNAL:
-                default:
-                    // External transfers - just refund the source account
-                    break;
-            }
+            // Reverse the transaction by mirroring exactly what was posted to the journal
+            ledgerService.reverseTransfer(transfer);
+            spendingRollupService.recordReversed(transfer);
             
-            // Mark as reversed
-            transfer.setStatus(Transfer.TransferStatus.FAILED);
             transfer.setDescription(transfer.getDescription() + " [REVERSED]");
             return transferRepository.save(transfer);
             
+        } catch (ConcurrencyFailureException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Transfer reversal failed", e);
         }
@@ -418,7 +633,7 @@ public class TransferService {
     // Helper method to determine transfer type from IBAN
     private Transfer.TransferType determineTransferTypeFromIban(String toIban, Long userId) {
         // Check if it's to another Aegis Bank account
-        Optional<Account> toAccount = accountRepository.findByIban(toIban);
+        Optional<Account> toAccount = ibanDirectory.resolveAccountId(toIban).flatMap(accountRepository::findById);
         if (toAccount.isPresent()) {
             // Check if it's user's own account
             if (toAccount.get().getUser().getId().equals(userId)) {
@@ -433,24 +648,64 @@ public class TransferService {
     }
     
     // SEARCH and FILTER operations
+    /**
+     * Any combination of filters as one keyset-paginated query. userId limits it to transfers
+     * sent from that user's accounts; null (admin) means all transfers.
+     */
+    public CursorPage<Transfer> filterTransfers(TransferFilter filter, Long userId, String sort, String cursor, Integer size) {
+        return keysetPaging.page(transferRepository, FilterSpecifications.transfers(filter, userId), sort,
+                FILTER_SORT_KEYS, Transfer::getId, cursor, size);
+    }
+    
+    // Single-filter searches, kept for existing clients; same specification, unpaged
     public List<Transfer> getTransfersByType(Transfer.TransferType type, Long userId) {
-        if (userId != null) {
-            return transferRepository.findByTypeAndFromAccountUserId(type, userId);
-        } else {
-            return transferRepository.findByType(type);
-        }
+        TransferFilter filter = new TransferFilter();
+        filter.setType(type);
+        return findTransfers(filter, userId);
     }
     
     public List<Transfer> getTransfersByDateRange(LocalDateTime startDate, LocalDateTime endDate, Long userId) {
-        return transferRepository.findByCreatedAtBetweenAndFromAccountUserId(startDate, endDate, userId);
+        TransferFilter filter = new TransferFilter();
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+        return findTransfers(filter, userId);
     }
     
     public List<Transfer> getTransfersByAmountRange(BigDecimal minAmount, BigDecimal maxAmount, Long userId) {
-        return transferRepository.findByAmountBetweenAndFromAccountUserId(minAmount, maxAmount, userId);
+        TransferFilter filter = new TransferFilter();
+        filter.setMinAmount(minAmount);
+        filter.setMaxAmount(maxAmount);
+        return findTransfers(filter, userId);
     }
     
     public List<Transfer> getTransfersByCategory(String category, Long userId) {
-        return transferRepository.findByCategoryAndFromAccountUserId(category, userId);
+        TransferFilter filter = new TransferFilter();
+        filter.setCategory(category);
+        return findTransfers(filter, userId);
+    }
+    
+    private List<Transfer> findTransfers(TransferFilter filter, Long userId) {
+        return transferRepository.findAll(FilterSpecifications.transfers(filter, userId), NEWEST_FIRST);
+    }
+    
+    public CursorPage<Transfer> searchTransfersByDescription(Long userId, String description, String cursor, Integer size) {
+        return fullTextSearch.search(description, cursor, size, (query, limit, offset) ->
+                loadInOrder(transferRepository.searchIdsByUserIdAndDescription(userId, query, limit, offset)));
+    }
+    
+    public CursorPage<Transfer> searchTransfersByDescriptionAdmin(String description, String cursor, Integer size) {
+        return fullTextSearch.search(description, cursor, size, (query, limit, offset) ->
+                loadInOrder(transferRepository.searchIdsByDescription(query, limit, offset)));
+    }
+    
+    // Loads the transfers with their source account in one query, keeping the relevance order of the ids
+    private List<Transfer> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Transfer> byId = transferRepository.findAllWithFromAccountByIdIn(ids).stream()
+                .collect(Collectors.toMap(Transfer::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
     
     // New methods for enhanced account functionality
@@ -461,53 +716,74 @@ public class TransferService {
                 .collect(Collectors.toList());
     }
     
-    public byte[] generateStatement(Long accountId, LocalDate startDate, LocalDate endDate, String format) {
+    /**
+     * Statement of an account for a date range, as CSV or the plain-text "PDF". Opening and
+     * closing balances are looked up first and returned alongside the body (the CSV holds only
+     * transaction rows); the transfers are then streamed from a database cursor straight into
+     * the response (gzip-compressed on request), one line at a time, so memory use does not
+     * depend on how many there are.
+     */
+    @Transactional(readOnly = true)
+    public Statement generateStatement(Long accountId, LocalDate startDate, LocalDate endDate,
+                                       String format, boolean gzip) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-        
-        List<Transfer> transfers = transferRepository.findByFromAccountIdOrToAccountIdAndCreatedAtBetween(
-            accountId, accountId, startDateTime, endDateTime);
-        
-        if (format.equalsIgnoreCase("PDF")) {
-            return generatePDFStatement(transfers, accountId, startDate, endDate);
-        } else {
-            return generateCSVStatement(transfers, accountId, startDate, endDate);
-        }
+        // Balances at the start of the first day and at the end of the last one
+        BigDecimal openingBalance = accountService.getBalanceAt(accountId, startDateTime);
+        BigDecimal closingBalance = accountService.getBalanceAt(accountId, endDate.plusDays(1).atStartOfDay());
+        boolean pdf = format.equalsIgnoreCase("PDF");
+        
+        StreamingResponseBody body = responseBody -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(responseBody, STATEMENT_BUFFER_SIZE) : null;
+            Writer out = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : responseBody,
+                    StandardCharsets.UTF_8), STATEMENT_BUFFER_SIZE);
+            
+            if (pdf) {
+                // Mock PDF generation - in a real application, you'd use a library like iText
+                out.write("Aegis Bank Statement\n" +
+                          "Account ID: " + accountId + "\n" +
+                          "Period: " + startDate + " to " + endDate + "\n" +
+                          "Opening balance: " + openingBalance + "\n" +
+                          "Transactions:\n");
+            } else {
+                out.write("Date,Amount,Description,Status,Reference\n");
+            }
+            
+            // The cursor runs on the response thread, after the request's transaction has ended
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> lines = transferRepository.streamStatementLines(accountId, startDateTime, endDateTime)) {
+                    for (Object[] line : (Iterable<Object[]>) lines::iterator) {
+                        out.write(pdf ? pdfStatementLine(line) : csvStatementLine(line));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            
+            if (pdf) {
+                out.write("Closing balance: " + closingBalance + "\n");
+            }
+            out.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+        return new Statement(openingBalance, closingBalance, body);
     }
     
-    private byte[] generatePDFStatement(List<Transfer> transfers, Long accountId, LocalDate startDate, LocalDate endDate) {
-        // Mock PDF generation - in a real application, you'd use a library like iText
-        String content = "Aegis Bank Statement\n" +
-                        "Account ID: " + accountId + "\n" +
-                        "Period: " + startDate + " to " + endDate + "\n" +
-                        "Transactions:\n";
-        
-        for (Transfer transfer : transfers) {
-            content += transfer.getCreatedAt() + " - " + transfer.getAmount() + " - " + 
-                      (transfer.getDescription() != null ? transfer.getDescription() : "Transfer") + "\n";
-        }
-        
-        return content.getBytes();
+    public record Statement(BigDecimal openingBalance, BigDecimal closingBalance, StreamingResponseBody body) {}
+    
+    // line: createdAt, amount, description, status, reference (see TransferRepository.streamStatementLines)
+    private static String pdfStatementLine(Object[] line) {
+        return line[0] + " - " + line[1] + " - " + (line[2] != null ? line[2] : "Transfer") + "\n";
     }
     
-    private byte[] generateCSVStatement(List<Transfer> transfers, Long accountId, LocalDate startDate, LocalDate endDate) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Date,Amount,Description,Status,Reference\n");
-        
-        for (Transfer transfer : transfers) {
-            csv.append(transfer.getCreatedAt().toLocalDate())
-               .append(",")
-               .append(transfer.getAmount())
-               .append(",")
-               .append(transfer.getDescription() != null ? transfer.getDescription() : "Transfer")
-               .append(",")
-               .append(transfer.getStatus())
-               .append(",")
-               .append(transfer.getReference() != null ? transfer.getReference() : "")
-               .append("\n");
-        }
-        
-        return csv.toString().getBytes();
+    private static String csvStatementLine(Object[] line) {
+        return ((LocalDateTime) line[0]).toLocalDate() + "," + line[1] + "," +
+               (line[2] != null ? line[2] : "Transfer") + "," + line[3] + "," +
+               (line[4] != null ? line[4] : "") + "\n";
     }
     
     @Transactional
@@ -523,9 +799,7 @@ public class TransferService {
             throw new IllegalArgumentException("Cannot cancel a completed transfer");
         }
         
-        // Set status to cancelled
-        transfer.setStatus(Transfer.TransferStatus.CANCELLED);
-        transfer.setUpdatedAt(LocalDateTime.now());
+        transferStateMachine.transition(transfer, Transfer.TransferStatus.CANCELLED);
         
         return transferRepository.save(transfer);
     }
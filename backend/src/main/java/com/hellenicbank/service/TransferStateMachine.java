@@ -0,0 +1,109 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.Transfer.TransferStatus;
+import com.hellenicbank.repository.TransferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transfer status transitions.
+ * Allowed moves come from the transition table; each one is applied as a guarded update that
+ * only succeeds if the row still has the status the caller read. Of two concurrent calls on
+ * the same transfer exactly one wins, the other gets a StateConflictException instead of
+ * acting on a stale status (e.g. debiting twice).
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferStateMachine {
+
+    private static final Map<TransferStatus, Set<TransferStatus>> TRANSITIONS = new EnumMap<>(TransferStatus.class);
+
+    static {
+        TRANSITIONS.put(TransferStatus.PENDING, EnumSet.of(TransferStatus.COMPLETED, TransferStatus.FAILED, TransferStatus.CANCELLED));
+        // Reversal
+        TRANSITIONS.put(TransferStatus.COMPLETED, EnumSet.of(TransferStatus.FAILED));
+        TRANSITIONS.put(TransferStatus.FAILED, EnumSet.of(TransferStatus.CANCELLED));
+        TRANSITIONS.put(TransferStatus.CANCELLED, EnumSet.noneOf(TransferStatus.class));
+    }
+
+    private final TransferRepository transferRepository;
+    private final MeterRegistry meterRegistry;
+
+    public static boolean isAllowed(TransferStatus from, TransferStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * Moves the transfer to the given status, or throws: IllegalArgumentException if the table
+     * does not allow it, StateConflictException if another caller changed the transfer first.
+     */
+    public void transition(Transfer transfer, TransferStatus to) {
+        TransferStatus from = transfer.getStatus();
+        if (!isAllowed(from, to)) {
+            reject(from, to, "illegal");
+            throw new IllegalArgumentException("Transfer cannot go from " + from + " to " + to);
+        }
+        if (!tryTransition(transfer, to)) {
+            throw new StateConflictException(transfer.getId(), from);
+        }
+    }
+
+    /**
+     * Same as transition() for batch callers: returns false instead of throwing.
+     */
+    public boolean tryTransition(Transfer transfer, TransferStatus to) {
+        TransferStatus from = transfer.getStatus();
+        if (!isAllowed(from, to)) {
+            reject(from, to, "illegal");
+            return false;
+        }
+        return compareAndSet(transfer, from, to);
+    }
+
+    /**
+     * Keeps the transfer in its current status until the transaction ends (the guarded update
+     * locks the row), so it can be edited or deleted without racing a concurrent transition.
+     */
+    public void hold(Transfer transfer) {
+        TransferStatus status = transfer.getStatus();
+        if (!compareAndSet(transfer, status, status)) {
+            throw new StateConflictException(transfer.getId(), status);
+        }
+    }
+
+    private boolean compareAndSet(Transfer transfer, TransferStatus from, TransferStatus to) {
+        LocalDateTime now = LocalDateTime.now();
+        if (transferRepository.compareAndSetStatus(transfer.getId(), from, to, now) == 0) {
+            reject(from, to, "conflict");
+            return false;
+        }
+        // Keep the managed entity in line with the row so a later flush does not write the old status back
+        transfer.setStatus(to);
+        transfer.setUpdatedAt(now);
+        return true;
+    }
+
+    private void reject(TransferStatus from, TransferStatus to, String reason) {
+        meterRegistry.counter("aegis.transfers.transitions.rejected",
+                "from", from.name(), "to", to.name(), "reason", reason).increment();
+    }
+
+    /**
+     * The transfer no longer has the status the caller read: a concurrent call got there first.
+     */
+    public static class StateConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public StateConflictException(Long transferId, TransferStatus expected) {
+            super("Transfer " + transferId + " is no longer " + expected);
+        }
+    }
+}
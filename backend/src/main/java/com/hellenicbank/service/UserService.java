@@ -1,5 +1,6 @@
 package com.hellenicbank.service;
 
+import com.hellenicbank.dto.CursorPage;
 import com.hellenicbank.entity.User;
 import com.hellenicbank.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,7 @@ public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final KeysetPaging keysetPaging;
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -44,6 +46,10 @@ public class UserService implements UserDetailsService {
         return userRepository.findAll();
     }
     
+    public CursorPage<User> findPage(String cursor, Integer size) {
+        return keysetPaging.page(cursor, size, userRepository::findPageAfter, User::getCreatedAt, User::getId);
+    }
+    
     public User updateUser(User user) {
         return userRepository.save(user);
     }
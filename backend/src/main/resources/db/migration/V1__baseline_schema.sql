@@ -0,0 +1,204 @@
+-- Baseline schema: the tables previously created by Hibernate (ddl-auto), with named
+-- constraints and the indexes backing the repository queries.
+
+CREATE TABLE users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(100) NOT NULL,
+    email      VARCHAR(100) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    role       ENUM ('USER','ADMIN') NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE accounts (
+    id         BIGINT        NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT        NOT NULL,
+    iban       VARCHAR(255)  NOT NULL,
+    type       ENUM ('CHECKING','SAVINGS','LOAN') NOT NULL,
+    balance    DECIMAL(15,2) NOT NULL,
+    currency   VARCHAR(255)  NOT NULL,
+    status     ENUM ('PENDING','ACTIVE','FROZEN','CANCELLED') NOT NULL,
+    nickname   VARCHAR(100),
+    version    BIGINT        NOT NULL,
+    created_at DATETIME(6)   NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_accounts_iban UNIQUE (iban)
+) ENGINE = InnoDB;
+
+CREATE TABLE cards (
+    id            BIGINT        NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT        NOT NULL,
+    account_id    BIGINT        NOT NULL,
+    type          ENUM ('DEBIT','CREDIT') NOT NULL,
+    masked_number VARCHAR(255)  NOT NULL,
+    expiry_month  INTEGER       NOT NULL,
+    expiry_year   INTEGER       NOT NULL,
+    credit_limit  DECIMAL(15,2),
+    status        ENUM ('PENDING','ACTIVE','BLOCKED','CANCELLED') NOT NULL,
+    created_at    DATETIME(6)   NOT NULL,
+    updated_at    DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE loans (
+    id              BIGINT        NOT NULL AUTO_INCREMENT,
+    user_id         BIGINT        NOT NULL,
+    principal       DECIMAL(15,2) NOT NULL,
+    interest_rate   DECIMAL(5,4)  NOT NULL,
+    term_months     INTEGER       NOT NULL,
+    monthly_payment DECIMAL(15,2),
+    purpose         VARCHAR(500),
+    admin_notes     VARCHAR(1000),
+    status          ENUM ('PENDING','APPROVED','REJECTED','ACTIVE','PAID','CANCELLED') NOT NULL,
+    created_at      DATETIME(6)   NOT NULL,
+    updated_at      DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE transfers (
+    id                  BIGINT        NOT NULL,
+    from_account_id     BIGINT        NOT NULL,
+    to_iban             VARCHAR(255)  NOT NULL,
+    to_account_id       BIGINT,
+    amount              DECIMAL(15,2) NOT NULL,
+    fee                 DECIMAL(15,2),
+    total_amount        DECIMAL(15,2),
+    currency            VARCHAR(255)  NOT NULL,
+    description         TEXT,
+    category            VARCHAR(255),
+    reference           VARCHAR(255),
+    type                ENUM ('EXTERNAL','INTERNAL','INTER_ACCOUNT') NOT NULL,
+    status              ENUM ('PENDING','COMPLETED','FAILED','CANCELLED') NOT NULL,
+    settlement_batch_id BIGINT,
+    created_at          DATETIME(6)   NOT NULL,
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Hibernate pooled sequence for transfer ids
+CREATE TABLE transfers_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO transfers_seq VALUES (1);
+
+CREATE TABLE scheduled_transfers (
+    id               BIGINT        NOT NULL AUTO_INCREMENT,
+    from_account_id  BIGINT        NOT NULL,
+    to_iban          VARCHAR(255)  NOT NULL,
+    to_account_id    BIGINT,
+    amount           DECIMAL(15,2) NOT NULL,
+    description      VARCHAR(255),
+    category         VARCHAR(255),
+    frequency        ENUM ('ONCE','DAILY','WEEKLY','MONTHLY') NOT NULL,
+    start_at         DATETIME(6)   NOT NULL,
+    execute_at       DATETIME(6)   NOT NULL,
+    end_at           DATETIME(6),
+    execution_count  INTEGER       NOT NULL,
+    last_transfer_id BIGINT,
+    last_error       VARCHAR(255),
+    status           ENUM ('ACTIVE','COMPLETED','FAILED','CANCELLED') NOT NULL,
+    version          BIGINT        NOT NULL,
+    created_at       DATETIME(6)   NOT NULL,
+    updated_at       DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE journal_entries (
+    id             BIGINT        NOT NULL,
+    posting_id     VARCHAR(36)   NOT NULL,
+    transfer_id    BIGINT,
+    account_id     BIGINT,
+    ledger_account ENUM ('CUSTOMER','EXTERNAL_CLEARING','FEE_INCOME','ADJUSTMENT') NOT NULL,
+    direction      ENUM ('DEBIT','CREDIT') NOT NULL,
+    entry_type     ENUM ('TRANSFER','REVERSAL','ADJUSTMENT') NOT NULL,
+    amount         DECIMAL(15,2) NOT NULL,
+    created_at     DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Hibernate pooled sequence for journal entry ids
+CREATE TABLE journal_entries_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO journal_entries_seq VALUES (1);
+
+CREATE TABLE settlement_batches (
+    id             BIGINT        NOT NULL AUTO_INCREMENT,
+    cutoff         DATETIME(6)   NOT NULL,
+    transfer_count BIGINT        NOT NULL,
+    total_amount   DECIMAL(19,2) NOT NULL,
+    file_name      VARCHAR(255),
+    created_at     DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE idempotency_keys (
+    scoped_key    VARCHAR(300) NOT NULL,
+    request_hash  VARCHAR(64)  NOT NULL,
+    response_body TEXT         NOT NULL,
+    created_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (scoped_key)
+) ENGINE = InnoDB;
+
+CREATE TABLE number_sequences (
+    name       VARCHAR(50) NOT NULL,
+    next_value BIGINT      NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+-- Indexes are created before the foreign keys so InnoDB reuses them instead of adding its own
+
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
+
+CREATE INDEX idx_accounts_user ON accounts (user_id);
+CREATE INDEX idx_accounts_status ON accounts (status);
+CREATE INDEX idx_accounts_created_at_id ON accounts (created_at, id);
+
+CREATE INDEX idx_cards_user ON cards (user_id);
+CREATE INDEX idx_cards_account ON cards (account_id);
+CREATE INDEX idx_cards_status ON cards (status);
+CREATE INDEX idx_cards_created_at_id ON cards (created_at, id);
+
+CREATE INDEX idx_loans_user_created_at ON loans (user_id, created_at);
+CREATE INDEX idx_loans_status_created_at ON loans (status, created_at);
+CREATE INDEX idx_loans_created_at_id ON loans (created_at, id);
+
+-- Account activity and statements (either side of the transfer, newest first)
+CREATE INDEX idx_transfers_from_account_created_at ON transfers (from_account_id, created_at);
+CREATE INDEX idx_transfers_to_account_created_at ON transfers (to_account_id, created_at);
+-- Pending batch execution and admin status filters, in (created_at, id) order
+CREATE INDEX idx_transfers_status_created_at_id ON transfers (status, created_at, id);
+CREATE INDEX idx_transfers_created_at_id ON transfers (created_at, id);
+-- Settlement claim (unsettled completed EXTERNAL transfers) and batch reads
+CREATE INDEX idx_transfers_settlement ON transfers (settlement_batch_id, type, status, updated_at);
+
+CREATE INDEX idx_scheduled_status_execute_at ON scheduled_transfers (status, execute_at, id);
+CREATE INDEX idx_scheduled_from_account ON scheduled_transfers (from_account_id);
+
+CREATE INDEX idx_journal_account ON journal_entries (account_id, id);
+CREATE INDEX idx_journal_transfer ON journal_entries (transfer_id);
+CREATE INDEX idx_journal_posting ON journal_entries (posting_id);
+
+CREATE INDEX idx_idempotency_created_at ON idempotency_keys (created_at);
+
+ALTER TABLE accounts
+    ADD CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+ALTER TABLE cards
+    ADD CONSTRAINT fk_cards_user FOREIGN KEY (user_id) REFERENCES users (id),
+    ADD CONSTRAINT fk_cards_account FOREIGN KEY (account_id) REFERENCES accounts (id);
+
+ALTER TABLE loans
+    ADD CONSTRAINT fk_loans_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+ALTER TABLE transfers
+    ADD CONSTRAINT fk_transfers_from_account FOREIGN KEY (from_account_id) REFERENCES accounts (id);
+
+ALTER TABLE scheduled_transfers
+    ADD CONSTRAINT fk_scheduled_from_account FOREIGN KEY (from_account_id) REFERENCES accounts (id);
@@ -0,0 +1,6 @@
+-- FULLTEXT indexes behind the purpose/description search endpoints (see FullTextSearch).
+-- InnoDB allows one new FULLTEXT index per ALTER TABLE; the first one on a table rebuilds it.
+
+ALTER TABLE loans ADD FULLTEXT INDEX ft_loans_purpose (purpose);
+
+ALTER TABLE transfers ADD FULLTEXT INDEX ft_transfers_description (description);
@@ -0,0 +1,17 @@
+-- Daily spending per (account, category), maintained by SpendingRollupService.
+-- Populate or repair it with POST /api/transfers/admin/spending/backfill.
+
+CREATE TABLE spending_rollups (
+    id             BIGINT        NOT NULL AUTO_INCREMENT,
+    user_id        BIGINT        NOT NULL,
+    account_id     BIGINT        NOT NULL,
+    category       VARCHAR(255)  NOT NULL,
+    spend_day      DATE          NOT NULL,
+    total_amount   DECIMAL(19,2) NOT NULL,
+    transfer_count BIGINT        NOT NULL,
+    updated_at     DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_spending_rollups_account_category_day UNIQUE (account_id, category, spend_day)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_spending_rollups_user_day ON spending_rollups (user_id, spend_day);
@@ -0,0 +1,23 @@
+-- End-of-day balance per account, written by BalanceSnapshotService, and the progress of each
+-- day's run. Rows are keyed on (account, day) with no surrogate id to keep them compact.
+
+CREATE TABLE balance_snapshots (
+    account_id   BIGINT        NOT NULL,
+    snapshot_day DATE          NOT NULL,
+    balance      DECIMAL(15,2) NOT NULL,
+    PRIMARY KEY (account_id, snapshot_day)
+) ENGINE = InnoDB;
+
+CREATE TABLE balance_snapshot_runs (
+    snapshot_day    DATE        NOT NULL,
+    max_account_id  BIGINT      NOT NULL,
+    completed_until BIGINT      NOT NULL,
+    started_at      DATETIME(6) NOT NULL,
+    completed_at    DATETIME(6),
+    PRIMARY KEY (snapshot_day)
+) ENGINE = InnoDB;
+
+-- A snapshot sums an account's legs since the previous day; (account_id, created_at) serves
+-- that range as well as the whole-account balance that (account_id, id) served before
+CREATE INDEX idx_journal_account_created_at ON journal_entries (account_id, created_at);
+DROP INDEX idx_journal_account ON journal_entries;
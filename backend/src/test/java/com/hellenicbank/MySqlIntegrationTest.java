@@ -0,0 +1,30 @@
+package com.hellenicbank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests that need the real schema: one MySQL 8.0 container for the whole run, with
+ * the Flyway migrations applied by the application on startup. Skipped where Docker is not
+ * available. Tests share the database, so each one creates its own users and accounts and only
+ * asserts on those. Background engines are switched off so they do not touch the test data.
+ */
+@SpringBootTest(properties = {
+        "aegis.scheduling.enabled=false",
+        "aegis.balance-snapshots.enabled=false",
+        "aegis.processing.enabled=false",
+        "aegis.settlement.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+    
+    // Started once and shared by every test class (and the cached application context)
+    @ServiceConnection
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+    
+    static {
+        MYSQL.start();
+    }
+}
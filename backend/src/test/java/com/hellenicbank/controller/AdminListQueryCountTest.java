@@ -0,0 +1,127 @@
+package com.hellenicbank.controller;
+
+import com.hellenicbank.MySqlIntegrationTest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.Card;
+import com.hellenicbank.entity.Loan;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import com.hellenicbank.repository.CardRepository;
+import com.hellenicbank.repository.LoanRepository;
+import com.hellenicbank.repository.TransferRepository;
+import com.hellenicbank.service.AccountService;
+import com.hellenicbank.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The admin list endpoints fetch a page and everything its rows render (owner, source account)
+ * with a fixed number of statements: loading ten times as many rows must not issue more.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@WithMockUser(roles = "ADMIN")
+class AdminListQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int ROWS = 20;
+    // Large enough for every row in the shared database to land on one page
+    private static final String PAGE_SIZE = "1000";
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/transfers/admin/all", "/api/accounts/admin/all", "/api/loans/admin/all",
+            "/api/cards/admin/all", "/api/users");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Test
+    void statementCountDoesNotGrowWithRows() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        seed(ROWS);
+        Map<String, Long> small = countStatements(statistics);
+        seed(9 * ROWS);
+        Map<String, Long> large = countStatements(statistics);
+
+        for (String endpoint : ENDPOINTS) {
+            assertThat(large.get(endpoint)).as(endpoint).isEqualTo(small.get(endpoint));
+        }
+    }
+
+    private Map<String, Long> countStatements(Statistics statistics) throws Exception {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            statistics.clear();
+            mockMvc.perform(get(endpoint).param("size", PAGE_SIZE)).andExpect(status().isOk());
+            counts.put(endpoint, statistics.getPrepareStatementCount());
+        }
+        return counts;
+    }
+
+    // Every row gets its own owner and account, so a lazy association would cost one query per row
+    private void seed(int rows) {
+        for (int i = 0; i < rows; i++) {
+            User user = new User();
+            user.setName("Query Count Test");
+            user.setEmail("query-count-" + UUID.randomUUID() + "@example.com");
+            user.setPassword("password");
+            user.setRole(User.Role.USER);
+            user = userService.createUser(user);
+
+            Account account = accountService.createAccountAdmin(user, Account.AccountType.CHECKING, null);
+
+            Card card = new Card();
+            card.setUser(user);
+            card.setAccount(account);
+            card.setType(Card.CardType.DEBIT);
+            card.setMaskedNumber("**** **** **** 0000");
+            card.setExpiryMonth(12);
+            card.setExpiryYear(2030);
+            cardRepository.save(card);
+
+            Loan loan = new Loan();
+            loan.setUser(user);
+            loan.setPrincipal(new BigDecimal("1000.00"));
+            loan.setInterestRate(new BigDecimal("0.0500"));
+            loan.setTermMonths(12);
+            loan.setPurpose("Query count test");
+            loanRepository.save(loan);
+
+            Transfer transfer = new Transfer();
+            transfer.setFromAccount(account);
+            transfer.setToIban("DE89370400440532013000");
+            transfer.setAmount(BigDecimal.TEN);
+            transfer.setTotalAmount(BigDecimal.TEN);
+            transfer.setDescription("Query count test");
+            transferRepository.save(transfer);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.hellenicbank.repository;
+
+import com.hellenicbank.MySqlIntegrationTest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.Card;
+import com.hellenicbank.entity.Loan;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import com.hellenicbank.service.AccountService;
+import com.hellenicbank.service.UserService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL the repositories actually generate (captured from Hibernate) against
+ * the Flyway schema, and checks that the index added for each query is the one MySQL picks.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hellenicbank.repository.QueryPlanTest$CapturingInspector")
+class QueryPlanTest extends MySqlIntegrationTest {
+
+    private static final int USERS = 50;
+    private static final int TRANSFERS_PER_USER = 20;
+    private static final int LOANS_PER_USER = 4;
+    private static final int CARDS_PER_USER = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransferRepository transferRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private CardRepository cardRepository;
+
+    private Long userId;
+
+    // Enough rows, spread over enough users, for the optimizer to prefer the indexes. Statuses
+    // are queried by a value the other test classes never write, so it stays selective
+    @BeforeAll
+    void seed() {
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setName("Query Plan Test");
+            user.setEmail("query-plan-" + UUID.randomUUID() + "@example.com");
+            user.setPassword("password");
+            user.setRole(User.Role.USER);
+            user = userService.createUser(user);
+            userId = user.getId();
+            Account account = accountService.createAccountAdmin(user, Account.AccountType.CHECKING, null);
+
+            List<Transfer> transfers = new ArrayList<>(TRANSFERS_PER_USER);
+            for (int i = 0; i < TRANSFERS_PER_USER; i++) {
+                Transfer transfer = new Transfer();
+                transfer.setFromAccount(account);
+                transfer.setToIban("DE89370400440532013000");
+                transfer.setAmount(BigDecimal.TEN);
+                transfer.setTotalAmount(BigDecimal.TEN);
+                transfer.setStatus(i == 0 ? Transfer.TransferStatus.CANCELLED : Transfer.TransferStatus.COMPLETED);
+                transfers.add(transfer);
+            }
+            transferRepository.saveAll(transfers);
+
+            List<Loan> loans = new ArrayList<>(LOANS_PER_USER);
+            for (int i = 0; i < LOANS_PER_USER; i++) {
+                Loan loan = new Loan();
+                loan.setUser(user);
+                loan.setPrincipal(new BigDecimal("1000.00"));
+                loan.setInterestRate(new BigDecimal("0.0500"));
+                loan.setTermMonths(12);
+                loan.setStatus(u % 10 == 0 && i == 0 ? Loan.LoanStatus.REJECTED : Loan.LoanStatus.ACTIVE);
+                loans.add(loan);
+            }
+            loanRepository.saveAll(loans);
+
+            List<Card> cards = new ArrayList<>(CARDS_PER_USER);
+            for (int i = 0; i < CARDS_PER_USER; i++) {
+                Card card = new Card();
+                card.setUser(user);
+                card.setAccount(account);
+                card.setType(Card.CardType.DEBIT);
+                card.setMaskedNumber("**** **** **** 000" + i);
+                card.setExpiryMonth(12);
+                card.setExpiryYear(2030);
+                cards.add(card);
+            }
+            cardRepository.saveAll(cards);
+        }
+        jdbcTemplate.execute("ANALYZE TABLE users, accounts, transfers, loans, cards");
+    }
+
+    @Test
+    void transfersByUserUseTheAccountAndSourceIndexes() {
+        List<String> keys = keysUsed(() -> transferRepository.findByFromAccountUserId(userId), userId);
+        assertThat(keys).contains("idx_accounts_user", "idx_transfers_from_account_created_at");
+    }
+
+    @Test
+    void transfersByStatusUseTheStatusIndex() {
+        List<String> keys = keysUsed(() -> transferRepository.findIdAndSourceAccountByStatus(
+                Transfer.TransferStatus.CANCELLED, PageRequest.of(0, 10)), "CANCELLED", 10);
+        assertThat(keys).contains("idx_transfers_status_created_at_id");
+    }
+
+    @Test
+    void loansByStatusUseTheStatusIndex() {
+        List<String> keys = keysUsed(() -> loanRepository.findByStatusOrderByCreatedAtDesc(Loan.LoanStatus.REJECTED), "REJECTED");
+        assertThat(keys).contains("idx_loans_status_created_at");
+    }
+
+    @Test
+    void loansByUserUseTheUserIndex() {
+        List<String> keys = keysUsed(() -> loanRepository.findByUserIdOrderByCreatedAtDesc(userId), userId);
+        assertThat(keys).contains("idx_loans_user_created_at");
+    }
+
+    @Test
+    void cardsByUserUseTheUserIndex() {
+        List<String> keys = keysUsed(() -> cardRepository.findByUserId(userId), userId);
+        assertThat(keys).contains("idx_cards_user");
+    }
+
+    // Runs the repository call, then EXPLAINs the first statement it issued with the same parameters.
+    // Returns the index of every table in the plan (PRIMARY for joined-in owners)
+    private List<String> keysUsed(Runnable query, Object... parameters) {
+        CapturingInspector.CAPTURED.get().clear();
+        query.run();
+        List<String> statements = CapturingInspector.CAPTURED.get();
+        assertThat(statements).isNotEmpty();
+        return jdbcTemplate.queryForList("EXPLAIN " + statements.get(0), parameters).stream()
+                .map(row -> (String) row.get("key"))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Records the SQL Hibernate sends on the calling thread.
+     */
+    public static class CapturingInspector implements StatementInspector {
+        static final ThreadLocal<List<String>> CAPTURED = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.get().add(sql);
+            return sql;
+        }
+    }
+}
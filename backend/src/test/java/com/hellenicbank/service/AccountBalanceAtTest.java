@@ -0,0 +1,157 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.MySqlIntegrationTest;
+import com.hellenicbank.dto.TransferRequest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.BalanceSnapshotRepository;
+import com.hellenicbank.repository.JournalEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Posts transfers and adjustments on past days (by moving their journal legs back in time),
+ * snapshots some of those days, and checks that getBalanceAt agrees with a plain sum of the
+ * journal at every instant that matters: midnights, before the first snapshot, between
+ * snapshots and now, where it must also equal the live balance.
+ */
+class AccountBalanceAtTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void balanceAtMatchesTheJournal() {
+        // Days the other snapshot tests leave alone; only these two accounts are snapshotted
+        LocalDate day1 = LocalDate.now().minusDays(10);
+        LocalDate day2 = day1.plusDays(1);
+        LocalDate day3 = day1.plusDays(2);
+        LocalDate day4 = day1.plusDays(3);
+
+        User user = createUser();
+        Account a = accountService.createAccountAdmin(user, Account.AccountType.CHECKING, null);
+        Account b = accountService.createAccountAdmin(user, Account.AccountType.SAVINGS, null);
+        jdbcTemplate.update("UPDATE accounts SET created_at = ? WHERE id IN (?, ?)",
+                day1.minusDays(1).atTime(9, 0), a.getId(), b.getId());
+
+        postAt(day1.minusDays(1).atTime(10, 0), a, b, () -> adjust(a.getId(), new BigDecimal("500.00")));
+        postAt(day1.atTime(12, 0), a, b, () -> transfer(a, b, user, "100.00"));
+        snapshot(day1, a, b);
+        // Adjustment between two snapshots
+        postAt(day2.atTime(8, 0), a, b, () -> adjust(a.getId(), new BigDecimal("25.00")));
+        snapshot(day2, a, b);
+        // Posted exactly at midnight: it belongs to day3, not to the day2 snapshot
+        postAt(day3.atStartOfDay(), a, b, () -> transfer(b, a, user, "30.00"));
+        snapshot(day3, a, b);
+        // After the last snapshot, so it is read from the journal
+        postAt(day4.atTime(15, 0), a, b, () -> transfer(a, b, user, "10.00"));
+
+        // Before the first snapshot (nothing earlier to start from)
+        assertBalanceAt(a, day1.minusDays(1).atTime(9, 30), "0.00");
+        assertBalanceAt(a, day1.atStartOfDay(), "500.00");
+        assertBalanceAt(a, day1.atTime(12, 0), "500.00");
+        assertBalanceAt(a, day1.atTime(13, 0), "400.00");
+        // Midnight right after a snapshot day
+        assertBalanceAt(a, day2.atStartOfDay(), "400.00");
+        assertBalanceAt(a, day2.atTime(12, 0), "425.00");
+        assertBalanceAt(a, day3.atStartOfDay(), "425.00");
+        assertBalanceAt(a, day3.atStartOfDay().plusNanos(1000), "455.00");
+        assertBalanceAt(a, day4.atStartOfDay(), "455.00");
+        assertBalanceAt(a, day4.atTime(16, 0), "445.00");
+        assertBalanceAt(b, day3.atStartOfDay(), "100.00");
+        assertBalanceAt(b, day4.atTime(16, 0), "80.00");
+
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        for (Account account : List.of(a, b)) {
+            BigDecimal live = accountRepository.findById(account.getId()).orElseThrow().getBalance();
+            assertThat(accountService.getBalanceAt(account.getId(), now)).as("account %s now", account.getId())
+                    .isEqualByComparingTo(live)
+                    .isEqualByComparingTo(journalEntryRepository.sumBalanceByAccountId(account.getId()));
+        }
+    }
+
+    // Checks the expected value and a plain journal sum up to the same instant
+    private void assertBalanceAt(Account account, LocalDateTime at, String expected) {
+        BigDecimal balance = accountService.getBalanceAt(account.getId(), at);
+        assertThat(balance).as("account %s at %s", account.getId(), at).isEqualByComparingTo(expected);
+        assertThat(balance).as("journal of account %s at %s", account.getId(), at).isEqualByComparingTo(journalBalanceAt(account, at));
+    }
+
+    private BigDecimal journalBalanceAt(Account account, LocalDateTime at) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(CASE WHEN direction = 'CREDIT' THEN amount ELSE -amount END), 0) " +
+                "FROM journal_entries WHERE account_id = ? AND ledger_account = 'CUSTOMER' AND created_at < ?",
+                BigDecimal.class, account.getId(), at);
+    }
+
+    // Runs a posting, then moves every leg of it (both sides) back to the given instant
+    private void postAt(LocalDateTime at, Account a, Account b, Runnable posting) {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(1);
+        posting.run();
+        List<String> postingIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT posting_id FROM journal_entries WHERE account_id IN (?, ?) AND created_at >= ?",
+                String.class, a.getId(), b.getId(), before);
+        assertThat(postingIds).isNotEmpty();
+        for (String postingId : postingIds) {
+            jdbcTemplate.update("UPDATE journal_entries SET created_at = ? WHERE posting_id = ?", at, postingId);
+        }
+    }
+
+    private void snapshot(LocalDate day, Account a, Account b) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                balanceSnapshotRepository.snapshotAccounts(day, day.plusDays(1).atStartOfDay(),
+                        Math.min(a.getId(), b.getId()), Math.max(a.getId(), b.getId())));
+    }
+
+    private void adjust(Long accountId, BigDecimal delta) {
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        account.setBalance(account.getBalance().add(delta));
+        accountService.updateAccount(account);
+    }
+
+    private void transfer(Account from, Account to, User owner, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from.getId());
+        request.setToIban(to.getIban());
+        request.setAmount(new BigDecimal(amount));
+        request.setDescription("Balance-at test");
+        Transfer transfer = transferService.createTransfer(request, owner.getId());
+        transferService.processTransfer(transfer.getId(), owner.getId());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Balance At Test");
+        user.setEmail("balance-at-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userService.createUser(user);
+    }
+}
@@ -0,0 +1,166 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.MySqlIntegrationTest;
+import com.hellenicbank.dto.TransferRequest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.BalanceSnapshot;
+import com.hellenicbank.entity.BalanceSnapshotRun;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.BalanceSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snapshots two consecutive past days through BalanceSnapshotService (in chunks of two
+ * accounts, several at once), checks every row against the journal sum at the end of its day,
+ * and runs a chunk again to check that it changes nothing.
+ */
+@TestPropertySource(properties = "aegis.balance-snapshots.chunk-accounts=2")
+class BalanceSnapshotServiceTest extends MySqlIntegrationTest {
+
+    private static final int ACCOUNTS = 5;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void snapshotsMatchTheJournalAndChunksAreIdempotent() {
+        // Far enough back that no other test's accounts existed yet on these days
+        LocalDate day1 = LocalDate.now().minusDays(30);
+        LocalDate day2 = day1.plusDays(1);
+
+        User user = createUser();
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(accountService.createAccountAdmin(user, Account.AccountType.CHECKING, null));
+        }
+        for (Account account : accounts) {
+            jdbcTemplate.update("UPDATE accounts SET created_at = ? WHERE id = ?", day1.minusDays(1).atTime(9, 0), account.getId());
+        }
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Long accountId = accounts.get(i).getId();
+            postAt(day1.minusDays(1).atTime(10, i), accounts, () -> adjust(accountId, new BigDecimal("200.00")));
+        }
+        postAt(day1.atTime(11, 0), accounts, () -> transfer(accounts.get(0), accounts.get(1), user, "50.00"));
+        postAt(day1.atTime(23, 59, 59), accounts, () -> transfer(accounts.get(2), accounts.get(3), user, "20.00"));
+        postAt(day2.atTime(8, 0), accounts, () -> adjust(accounts.get(4).getId(), new BigDecimal("-75.00")));
+        postAt(day2.atTime(14, 0), accounts, () -> transfer(accounts.get(1), accounts.get(0), user, "5.00"));
+        // The day after: in neither snapshot
+        postAt(day2.plusDays(1).atStartOfDay(), accounts, () -> transfer(accounts.get(3), accounts.get(4), user, "1.00"));
+
+        for (LocalDate day : List.of(day1, day2)) {
+            BalanceSnapshotRun run = balanceSnapshotService.snapshot(day);
+            assertThat(run.getCompletedAt()).as("run of %s", day).isNotNull();
+            assertThat(run.getCompletedUntil()).isEqualTo(run.getMaxAccountId());
+        }
+
+        Map<BalanceSnapshot.Key, BigDecimal> snapshotted = new HashMap<>();
+        for (LocalDate day : List.of(day1, day2)) {
+            for (Account account : accounts) {
+                BalanceSnapshot.Key key = new BalanceSnapshot.Key(account.getId(), day);
+                BigDecimal balance = balanceSnapshotRepository.findById(key).orElseThrow().getBalance();
+                assertThat(balance).as("account %s on %s", account.getId(), day)
+                        .isEqualByComparingTo(journalBalanceBefore(account, day.plusDays(1).atStartOfDay()));
+                snapshotted.put(key, balance);
+            }
+        }
+        assertThat(snapshotted.get(new BalanceSnapshot.Key(accounts.get(0).getId(), day1))).isEqualByComparingTo("150.00");
+        assertThat(snapshotted.get(new BalanceSnapshot.Key(accounts.get(0).getId(), day2))).isEqualByComparingTo("155.00");
+        assertThat(snapshotted.get(new BalanceSnapshot.Key(accounts.get(3).getId(), day2))).isEqualByComparingTo("220.00");
+        assertThat(snapshotted.get(new BalanceSnapshot.Key(accounts.get(4).getId(), day2))).isEqualByComparingTo("125.00");
+
+        // Run the chunk holding these accounts again, for both days and in either order
+        Long fromId = accounts.get(0).getId();
+        Long toId = accounts.get(ACCOUNTS - 1).getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (LocalDate day : List.of(day2, day1, day2)) {
+            transaction.executeWithoutResult(status ->
+                    balanceSnapshotRepository.snapshotAccounts(day, day.plusDays(1).atStartOfDay(), fromId, toId));
+        }
+        // A completed day is not run again
+        assertThat(balanceSnapshotService.snapshot(day2).getCompletedAt()).isNotNull();
+
+        snapshotted.forEach((key, balance) ->
+                assertThat(balanceSnapshotRepository.findById(key).orElseThrow().getBalance())
+                        .isEqualByComparingTo(balance));
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM balance_snapshots WHERE account_id BETWEEN ? AND ?", Integer.class, fromId, toId);
+        assertThat(rows).isEqualTo(2 * ACCOUNTS);
+    }
+
+    private BigDecimal journalBalanceBefore(Account account, LocalDateTime before) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(CASE WHEN direction = 'CREDIT' THEN amount ELSE -amount END), 0) " +
+                "FROM journal_entries WHERE account_id = ? AND ledger_account = 'CUSTOMER' AND created_at < ?",
+                BigDecimal.class, account.getId(), before);
+    }
+
+    // Runs a posting, then moves every leg of it (both sides) back to the given instant
+    private void postAt(LocalDateTime at, List<Account> accounts, Runnable posting) {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(1);
+        posting.run();
+        List<String> postingIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT posting_id FROM journal_entries WHERE account_id BETWEEN ? AND ? AND created_at >= ?",
+                String.class, accounts.get(0).getId(), accounts.get(accounts.size() - 1).getId(), before);
+        assertThat(postingIds).isNotEmpty();
+        for (String postingId : postingIds) {
+            jdbcTemplate.update("UPDATE journal_entries SET created_at = ? WHERE posting_id = ?", at, postingId);
+        }
+    }
+
+    private void adjust(Long accountId, BigDecimal delta) {
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        account.setBalance(account.getBalance().add(delta));
+        accountService.updateAccount(account);
+    }
+
+    private void transfer(Account from, Account to, User owner, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from.getId());
+        request.setToIban(to.getIban());
+        request.setAmount(new BigDecimal(amount));
+        request.setDescription("Snapshot test");
+        Transfer transfer = transferService.createTransfer(request, owner.getId());
+        transferService.processTransfer(transfer.getId(), owner.getId());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Snapshot Test");
+        user.setEmail("snapshot-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userService.createUser(user);
+    }
+}
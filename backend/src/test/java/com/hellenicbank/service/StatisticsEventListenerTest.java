@@ -0,0 +1,155 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.MySqlIntegrationTest;
+import com.hellenicbank.dto.LoanRequest;
+import com.hellenicbank.dto.LoanStatusUpdateRequest;
+import com.hellenicbank.dto.TransferRequest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.Loan;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Makes committed and rolled-back changes through the services (inserts, transfer transitions
+ * through TransferStateMachine, loan approval and rejection) and checks that the counters the
+ * listener kept up to date equal a fresh reconcile.
+ */
+class StatisticsEventListenerTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private StatisticsService statisticsService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void countersMatchAReconcile() {
+        // Start from the database as it is; other test classes write without this context's listener
+        statisticsService.reconcile();
+        long completedBefore = statisticsService.count(StatisticsService.Kind.TRANSFERS, Transfer.TransferStatus.COMPLETED);
+        long cancelledBefore = statisticsService.count(StatisticsService.Kind.TRANSFERS, Transfer.TransferStatus.CANCELLED);
+        long pendingTransfersBefore = statisticsService.count(StatisticsService.Kind.TRANSFERS, Transfer.TransferStatus.PENDING);
+        long approvedBefore = statisticsService.count(StatisticsService.Kind.LOANS, Loan.LoanStatus.APPROVED);
+        long rejectedBefore = statisticsService.count(StatisticsService.Kind.LOANS, Loan.LoanStatus.REJECTED);
+        long pendingLoansBefore = statisticsService.count(StatisticsService.Kind.LOANS, Loan.LoanStatus.PENDING);
+
+        User user = createUser();
+        Account checking = accountService.createAccountAdmin(user, Account.AccountType.CHECKING, null);
+        Account savings = accountService.createAccountAdmin(user, Account.AccountType.SAVINGS, null);
+        checking.setBalance(new BigDecimal("500.00"));
+        accountService.updateAccount(checking);
+
+        // PENDING -> COMPLETED and PENDING -> CANCELLED through the state machine's compare-and-set
+        Transfer completed = transfer(checking, savings, user, "40.00");
+        transferService.processTransfer(completed.getId(), user.getId());
+        Transfer cancelled = transfer(checking, savings, user, "15.00");
+        transferService.cancelTransfer(cancelled.getId());
+        Transfer pending = transfer(checking, savings, user, "5.00");
+
+        Loan approved = loanService.createLoan(loanRequest("2500.00"), user.getId());
+        loanService.updateLoanStatus(approved.getId(), statusUpdate(Loan.LoanStatus.APPROVED));
+        Loan rejected = loanService.createLoan(loanRequest("900.00"), user.getId());
+        loanService.updateLoanStatus(rejected.getId(), statusUpdate(Loan.LoanStatus.REJECTED));
+
+        // Rolled back: none of this may be counted
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Transfer rolledBack = transfer(checking, savings, user, "7.00");
+            transferService.processTransfer(rolledBack.getId(), user.getId());
+            transferService.cancelTransfer(pending.getId());
+            Loan loan = loanService.createLoan(loanRequest("300.00"), user.getId());
+            loanService.updateLoanStatus(loan.getId(), statusUpdate(Loan.LoanStatus.APPROVED));
+            status.setRollbackOnly();
+        });
+
+        assertThat(statisticsService.count(StatisticsService.Kind.TRANSFERS, Transfer.TransferStatus.COMPLETED))
+                .isEqualTo(completedBefore + 1);
+        assertThat(statisticsService.count(StatisticsService.Kind.TRANSFERS, Transfer.TransferStatus.CANCELLED))
+                .isEqualTo(cancelledBefore + 1);
+        assertThat(statisticsService.count(StatisticsService.Kind.TRANSFERS, Transfer.TransferStatus.PENDING))
+                .isEqualTo(pendingTransfersBefore + 1);
+        assertThat(statisticsService.count(StatisticsService.Kind.LOANS, Loan.LoanStatus.APPROVED))
+                .isEqualTo(approvedBefore + 1);
+        assertThat(statisticsService.count(StatisticsService.Kind.LOANS, Loan.LoanStatus.REJECTED))
+                .isEqualTo(rejectedBefore + 1);
+        assertThat(statisticsService.count(StatisticsService.Kind.LOANS, Loan.LoanStatus.PENDING))
+                .isEqualTo(pendingLoansBefore);
+
+        Map<String, Object> counted = normalize(statisticsService.snapshot());
+        statisticsService.reconcile();
+        Map<String, Object> reconciled = normalize(statisticsService.snapshot());
+        assertThat(counted).isEqualTo(reconciled);
+    }
+
+    // Drops reconciledAt and emptied buckets, and compares amounts by value rather than scale
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> normalize(Map<String, Object> section) {
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        section.forEach((key, value) -> {
+            if (key.equals("reconciledAt")) {
+                return;
+            }
+            if (value instanceof Map<?, ?> map) {
+                Map<String, Object> child = normalize((Map<String, Object>) map);
+                if (!Long.valueOf(0).equals(child.get("count"))) {
+                    normalized.put(key, child);
+                }
+            } else if (value instanceof BigDecimal amount) {
+                normalized.put(key, amount.stripTrailingZeros());
+            } else {
+                normalized.put(key, value);
+            }
+        });
+        return normalized;
+    }
+
+    private Transfer transfer(Account from, Account to, User owner, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from.getId());
+        request.setToIban(to.getIban());
+        request.setAmount(new BigDecimal(amount));
+        request.setDescription("Statistics test");
+        return transferService.createTransfer(request, owner.getId());
+    }
+
+    private static LoanRequest loanRequest(String principal) {
+        LoanRequest request = new LoanRequest();
+        request.setPrincipal(new BigDecimal(principal));
+        request.setInterestRate(new BigDecimal("0.0500"));
+        request.setTermMonths(24);
+        request.setPurpose("Statistics test");
+        return request;
+    }
+
+    private static LoanStatusUpdateRequest statusUpdate(Loan.LoanStatus status) {
+        LoanStatusUpdateRequest request = new LoanStatusUpdateRequest();
+        request.setStatus(status);
+        return request;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Statistics Test");
+        user.setEmail("statistics-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userService.createUser(user);
+    }
+}
@@ -0,0 +1,155 @@
+package com.hellenicbank.service;
+
+import com.hellenicbank.MySqlIntegrationTest;
+import com.hellenicbank.dto.TransferRequest;
+import com.hellenicbank.entity.Account;
+import com.hellenicbank.entity.JournalEntry;
+import com.hellenicbank.entity.Transfer;
+import com.hellenicbank.entity.User;
+import com.hellenicbank.repository.AccountRepository;
+import com.hellenicbank.repository.JournalEntryRepository;
+import com.hellenicbank.repository.TransferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Processes many transfers between a handful of accounts at once, so the same rows are debited
+ * and credited concurrently (and some transfers run out of funds), then checks that no money
+ * was created or lost and that balances and the journal still agree.
+ */
+class TransferConcurrencyTest extends MySqlIntegrationTest {
+
+    // Enough transfers per account for lock waits and retries to actually happen on every row
+    private static final int USERS = 4;
+    private static final int ACCOUNTS = 8;
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 16;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransferRepository transferRepository;
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Test
+    void concurrentProcessingConservesMoney() throws Exception {
+        // Several users with two accounts each, so both INTERNAL and INTER_ACCOUNT transfers occur
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(createUser());
+        }
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(createAccount(users.get(i % users.size())));
+        }
+        BigDecimal totalBefore = OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS));
+
+        // Every transfer is affordable on its own, but not all of them together
+        Random random = new Random(42);
+        List<Transfer> transfers = new ArrayList<>(TRANSFERS);
+        List<Long> ownerIds = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            TransferRequest request = new TransferRequest();
+            request.setFromAccountId(accounts.get(from).getId());
+            request.setToIban(accounts.get(to).getIban());
+            request.setAmount(BigDecimal.valueOf(1 + random.nextInt(40)));
+            request.setDescription("Concurrency test");
+            Long ownerId = users.get(from % users.size()).getId();
+            transfers.add(transferService.createTransfer(request, ownerId));
+            ownerIds.add(ownerId);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+        try {
+            for (int i = 0; i < TRANSFERS; i++) {
+                Long transferId = transfers.get(i).getId();
+                Long ownerId = ownerIds.get(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return transferService.processTransfer(transferId, ownerId);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Insufficient funds or a lost lock race: the transfer is simply not completed
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BigDecimal totalAfter = BigDecimal.ZERO;
+        BigDecimal journalTotal = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            BigDecimal balance = accountRepository.findById(account.getId()).orElseThrow().getBalance();
+            BigDecimal journalBalance = journalEntryRepository.sumBalanceByAccountId(account.getId());
+            assertThat(balance).as("balance of account %s", account.getId()).isNotNegative();
+            assertThat(journalBalance).as("journal of account %s", account.getId()).isEqualByComparingTo(balance);
+            totalAfter = totalAfter.add(balance);
+            journalTotal = journalTotal.add(journalBalance);
+        }
+        assertThat(totalAfter).isEqualByComparingTo(totalBefore);
+        assertThat(journalTotal).isEqualByComparingTo(totalBefore);
+
+        // Completed transfers posted exactly one balanced debit/credit pair, the others nothing
+        int completed = 0;
+        for (Transfer transfer : transfers) {
+            Transfer reloaded = transferRepository.findById(transfer.getId()).orElseThrow();
+            List<JournalEntry> legs = journalEntryRepository.findByTransferIdAndEntryType(
+                    transfer.getId(), JournalEntry.EntryType.TRANSFER);
+            if (reloaded.getStatus() == Transfer.TransferStatus.COMPLETED) {
+                completed++;
+                assertThat(legs).hasSize(2);
+                assertThat(legs).extracting(JournalEntry::getDirection)
+                        .containsExactlyInAnyOrder(JournalEntry.Direction.DEBIT, JournalEntry.Direction.CREDIT);
+            } else {
+                assertThat(legs).isEmpty();
+            }
+        }
+        assertThat(completed).isPositive();
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Concurrency Test");
+        user.setEmail("concurrency-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        user.setRole(User.Role.USER);
+        return userService.createUser(user);
+    }
+
+    private Account createAccount(User user) {
+        Account account = accountService.createAccountAdmin(user, Account.AccountType.CHECKING, null);
+        // Opening balance through the journal, like an admin edit
+        account.setBalance(OPENING_BALANCE);
+        return accountService.updateAccount(account);
+    }
+}
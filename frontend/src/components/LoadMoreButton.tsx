@@ -0,0 +1,19 @@
+import { Button } from './ui/button'
+
+interface LoadMoreButtonProps {
+  hasMore: boolean
+  loading: boolean
+  onClick: () => void
+}
+
+export const LoadMoreButton = ({ hasMore, loading, onClick }: LoadMoreButtonProps) => {
+  if (!hasMore) return null
+
+  return (
+    <div className="flex justify-center pt-2">
+      <Button variant="outline" onClick={onClick} disabled={loading}>
+        {loading ? 'Loading...' : 'Load more'}
+      </Button>
+    </div>
+  )
+}
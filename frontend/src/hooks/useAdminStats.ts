@@ -0,0 +1,35 @@
+import { useQuery } from '@tanstack/react-query'
+import api from '../lib/api'
+
+interface StatsSection {
+  count: number
+  amount?: number
+  byStatus?: Record<string, { count: number, amount?: number }>
+  byType?: Record<string, { count: number, amount?: number }>
+}
+
+export interface AdminStats {
+  users: StatsSection
+  accounts: StatsSection
+  cards: StatsSection
+  loans: StatsSection
+  transfers: StatsSection
+  reconciledAt?: string
+}
+
+// Server-side counters (GET /api/admin/stats), so totals don't depend on how many rows are loaded
+export const useAdminStats = () => {
+  return useQuery({
+    queryKey: ['admin-stats'],
+    queryFn: async () => {
+      const response = await api.get<AdminStats>('/api/admin/stats')
+      return response.data
+    },
+    refetchInterval: 30000
+  })
+}
+
+export const countOf = (section?: StatsSection, status?: string) => {
+  if (!section) return 0
+  return status ? section.byStatus?.[status]?.count ?? 0 : section.count
+}
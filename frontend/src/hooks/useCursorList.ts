@@ -0,0 +1,27 @@
+import { useInfiniteQuery } from '@tanstack/react-query'
+import api from '../lib/api'
+
+// Admin list endpoints are keyset-paginated: the body is one page and the
+// X-Next-Cursor header points at the next one. Pages are fetched on demand.
+export const useCursorList = <T = any>(queryKey: unknown[], url: string, size = 50) => {
+  const query = useInfiniteQuery({
+    queryKey,
+    queryFn: async ({ pageParam }) => {
+      const response = await api.get<T[]>(url, { params: { cursor: pageParam, size } })
+      return {
+        items: response.data,
+        nextCursor: response.headers['x-next-cursor'] as string | undefined
+      }
+    },
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor || undefined
+  })
+
+  return {
+    items: query.data?.pages.flatMap((page) => page.items) ?? [],
+    hasMore: query.hasNextPage,
+    loadMore: () => query.fetchNextPage(),
+    isLoading: query.isLoading,
+    isLoadingMore: query.isFetchingNextPage
+  }
+}
@@ -1,5 +1,5 @@
 import { useState } from 'react'
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useMutation, useQueryClient } from '@tanstack/react-query'
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../components/ui/card'
 import { Button } from '../components/ui/button'
 import { Badge } from '../components/ui/badge'
@@ -27,6 +27,9 @@ import {
   Eye
 } from 'lucide-react'
 import api from '../lib/api'
+import { useCursorList } from '../hooks/useCursorList'
+import { useAdminStats, countOf } from '../hooks/useAdminStats'
+import { LoadMoreButton } from '../components/LoadMoreButton'
 
 interface User {
   id: number
@@ -105,60 +108,32 @@ export const AdminDashboardPage = () => {
   const [viewingItem, setViewingItem] = useState<{type: string, id: number, data: any} | null>(null)
   const queryClient = useQueryClient()
 
-  // Fetch all data
-  const { data: users = [] } = useQuery({
-    queryKey: ['admin-users'],
-    queryFn: async () => {
-      const response = await api.get('/api/users')
-      return response.data
-    }
-  })
-
-  const { data: accounts = [] } = useQuery({
-    queryKey: ['admin-accounts'],
-    queryFn: async () => {
-      const response = await api.get('/api/accounts/admin/all')
-      return response.data
-    }
-  })
-
-  const { data: cards = [] } = useQuery({
-    queryKey: ['admin-cards'],
-    queryFn: async () => {
-      const response = await api.get('/api/cards/admin/all')
-      return response.data
-    }
-  })
-
-  const { data: loans = [] } = useQuery({
-    queryKey: ['admin-loans'],
-    queryFn: async () => {
-      const response = await api.get('/api/loans/admin/all')
-      return response.data
-    }
-  })
-
-  const { data: transfers = [] } = useQuery({
-    queryKey: ['admin-transfers'],
-    queryFn: async () => {
-      const response = await api.get('/api/transfers/admin/all')
-      return response.data
-    }
-  })
+  // Lists load a page at a time; totals come from the server-side counters
+  const { items: users, hasMore: hasMoreUsers, loadMore: loadMoreUsers, isLoadingMore: loadingMoreUsers } =
+    useCursorList<User>(['admin-users'], '/api/users')
+  const { items: accounts, hasMore: hasMoreAccounts, loadMore: loadMoreAccounts, isLoadingMore: loadingMoreAccounts } =
+    useCursorList<Account>(['admin-accounts'], '/api/accounts/admin/all')
+  const { items: cards, hasMore: hasMoreCards, loadMore: loadMoreCards, isLoadingMore: loadingMoreCards } =
+    useCursorList<Card>(['admin-cards'], '/api/cards/admin/all')
+  const { items: loans, hasMore: hasMoreLoans, loadMore: loadMoreLoans, isLoadingMore: loadingMoreLoans } =
+    useCursorList<Loan>(['admin-loans'], '/api/loans/admin/all')
+  const { items: transfers, hasMore: hasMoreTransfers, loadMore: loadMoreTransfers, isLoadingMore: loadingMoreTransfers } =
+    useCursorList<Transfer>(['admin-transfers'], '/api/transfers/admin/all')
+  const { data: adminStats } = useAdminStats()
 
   // Calculate statistics
   const stats = {
-    totalUsers: users.length,
-    totalAccounts: accounts.length,
-    totalCards: cards.length,
-    totalLoans: loans.length,
-    totalTransfers: transfers.length,
-    pendingAccounts: accounts.filter((acc: Account) => acc.status === 'PENDING').length,
-    pendingCards: cards.filter((card: Card) => card.status === 'PENDING').length,
-    pendingLoans: loans.filter((loan: Loan) => loan.status === 'PENDING').length,
-    totalPending: accounts.filter((acc: Account) => acc.status === 'PENDING').length +
-                 cards.filter((card: Card) => card.status === 'PENDING').length +
-                 loans.filter((loan: Loan) => loan.status === 'PENDING').length
+    totalUsers: countOf(adminStats?.users),
+    totalAccounts: countOf(adminStats?.accounts),
+    totalCards: countOf(adminStats?.cards),
+    totalLoans: countOf(adminStats?.loans),
+    totalTransfers: countOf(adminStats?.transfers),
+    pendingAccounts: countOf(adminStats?.accounts, 'PENDING'),
+    pendingCards: countOf(adminStats?.cards, 'PENDING'),
+    pendingLoans: countOf(adminStats?.loans, 'PENDING'),
+    totalPending: countOf(adminStats?.accounts, 'PENDING') +
+                 countOf(adminStats?.cards, 'PENDING') +
+                 countOf(adminStats?.loans, 'PENDING')
   }
 
   // Mutations
@@ -169,6 +144,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('Account updated successfully!')
@@ -185,6 +161,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Account deleted successfully!')
     },
     onError: (error: any) => {
@@ -200,6 +177,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
     }
   })
 
@@ -209,6 +187,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
     }
   })
 
@@ -219,6 +198,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('Card updated successfully!')
@@ -235,6 +215,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Card deleted successfully!')
     },
     onError: (error: any) => {
@@ -250,6 +231,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
     }
   })
 
@@ -259,6 +241,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
     }
   })
 
@@ -269,6 +252,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Account cancelled successfully!')
     },
     onError: (error: any) => {
@@ -284,6 +268,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Card cancelled successfully!')
     },
     onError: (error: any) => {
@@ -299,6 +284,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-transfers'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Transfer cancelled successfully!')
     },
     onError: (error: any) => {
@@ -314,6 +300,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Loan cancelled successfully!')
     },
     onError: (error: any) => {
@@ -329,6 +316,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('Loan updated successfully!')
@@ -346,6 +334,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('User updated successfully!')
@@ -363,6 +352,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('User deleted successfully!')
     },
     onError: (error: any) => {
@@ -377,6 +367,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Loan deleted successfully!')
     },
     onError: (error: any) => {
@@ -392,6 +383,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
     }
   })
 
@@ -401,6 +393,7 @@ export const AdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
     }
   })
 
@@ -837,7 +830,7 @@ export const AdminDashboardPage = () => {
           {activeTab === 'accounts' && (
             <div className="space-y-4">
               <div className="flex items-center justify-between">
-                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Accounts ({filteredAccounts.length})</h3>
+                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Accounts ({filteredAccounts.length} of {stats.totalAccounts})</h3>
               </div>
               
               <div className="space-y-3">
@@ -964,6 +957,7 @@ export const AdminDashboardPage = () => {
                   </div>
                 ))}
               </div>
+              <LoadMoreButton hasMore={hasMoreAccounts} loading={loadingMoreAccounts} onClick={loadMoreAccounts} />
             </div>
           )}
 
@@ -971,7 +965,7 @@ export const AdminDashboardPage = () => {
           {activeTab === 'cards' && (
             <div className="space-y-4">
               <div className="flex items-center justify-between">
-                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Cards ({filteredCards.length})</h3>
+                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Cards ({filteredCards.length} of {stats.totalCards})</h3>
               </div>
               
               <div className="space-y-3">
@@ -1101,6 +1095,7 @@ export const AdminDashboardPage = () => {
                   </div>
                 ))}
               </div>
+              <LoadMoreButton hasMore={hasMoreCards} loading={loadingMoreCards} onClick={loadMoreCards} />
             </div>
           )}
 
@@ -1108,7 +1103,7 @@ export const AdminDashboardPage = () => {
           {activeTab === 'loans' && (
             <div className="space-y-4">
               <div className="flex items-center justify-between">
-                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Loans ({filteredLoans.length})</h3>
+                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Loans ({filteredLoans.length} of {stats.totalLoans})</h3>
               </div>
               
               <div className="space-y-3">
@@ -1261,6 +1256,7 @@ export const AdminDashboardPage = () => {
                   </div>
                 ))}
               </div>
+              <LoadMoreButton hasMore={hasMoreLoans} loading={loadingMoreLoans} onClick={loadMoreLoans} />
             </div>
           )}
 
@@ -1268,7 +1264,7 @@ export const AdminDashboardPage = () => {
           {activeTab === 'transfers' && (
             <div className="space-y-4">
               <div className="flex items-center justify-between">
-                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Transfers ({filteredTransfers.length})</h3>
+                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Transfers ({filteredTransfers.length} of {stats.totalTransfers})</h3>
               </div>
               
               <div className="space-y-3">
@@ -1317,6 +1313,7 @@ export const AdminDashboardPage = () => {
                   </div>
                 ))}
               </div>
+              <LoadMoreButton hasMore={hasMoreTransfers} loading={loadingMoreTransfers} onClick={loadMoreTransfers} />
             </div>
           )}
 
@@ -1324,7 +1321,7 @@ export const AdminDashboardPage = () => {
           {activeTab === 'users' && (
             <div className="space-y-4">
               <div className="flex items-center justify-between">
-                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Users ({users.length})</h3>
+                <h3 className="text-lg font-semibold text-blue-900 dark:text-blue-100">All Users ({users.length} of {stats.totalUsers})</h3>
               </div>
               
               <div className="space-y-3">
@@ -1438,6 +1435,7 @@ export const AdminDashboardPage = () => {
                   </div>
                 ))}
               </div>
+              <LoadMoreButton hasMore={hasMoreUsers} loading={loadingMoreUsers} onClick={loadMoreUsers} />
             </div>
           )}
         </CardContent>
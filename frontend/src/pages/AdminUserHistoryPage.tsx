@@ -1,4 +1,4 @@
-import { useQuery } from '@tanstack/react-query'
+import { useQueries, useQueryClient } from '@tanstack/react-query'
 import { useState } from 'react'
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../components/ui/card'
 import { Button } from '../components/ui/button'
@@ -12,6 +12,9 @@ import {
   RefreshCw
 } from 'lucide-react'
 import api from '../lib/api'
+import { useCursorList } from '../hooks/useCursorList'
+import { useAdminStats, countOf } from '../hooks/useAdminStats'
+import { LoadMoreButton } from '../components/LoadMoreButton'
 
 interface UserWithHistory {
   id: number
@@ -28,109 +31,111 @@ interface UserWithHistory {
   requests: any[]
 }
 
-export const AdminUserHistoryPage = () => {
-  const [searchTerm, setSearchTerm] = useState('')
-  const [filterStatus, setFilterStatus] = useState<'ALL' | 'PENDING' | 'APPROVED' | 'REJECTED'>('ALL')
-
-  // Fetch all users with their request history
-  const { data: users, isLoading, refetch } = useQuery({
-    queryKey: ['admin-users-history'],
-    queryFn: async () => {
-      const [usersRes, accountsRes, cardsRes, loansRes] = await Promise.all([
-        api.get('/api/users'),
-        api.get('/api/accounts/admin/all'),
-        api.get('/api/cards/all'),
-        api.get('/api/loans/admin')
-      ])
+// One user's account, card and loan requests, newest first
+const fetchUserRequests = async (userId: number) => {
+  const [accountsRes, cardsRes, loansRes] = await Promise.all([
+    api.get(`/api/accounts/user/${userId}`),
+    api.get(`/api/cards/user/${userId}`),
+    api.get(`/api/loans/user/${userId}`)
+  ])
 
-      // Combine all requests by user
-      const userRequestMap = new Map<number, any[]>()
+  const requests = [
+    ...accountsRes.data.map((account: any) => ({
+      id: account.id,
+      type: 'ACCOUNT',
+      status: account.status,
+      createdAt: account.createdAt,
+      approvedAt: account.status === 'ACTIVE' ? account.updatedAt : null,
+      details: {
+        type: account.type,
+        iban: account.iban,
+        balance: account.balance
+      }
+    })),
+    ...cardsRes.data.map((card: any) => ({
+      id: card.id,
+      type: 'CARD',
+      status: card.status,
+      createdAt: card.createdAt,
+      approvedAt: card.status === 'ACTIVE' ? card.updatedAt : null,
+      details: {
+        type: card.type,
+        maskedNumber: card.maskedNumber,
+        expiryMonth: card.expiryMonth,
+        expiryYear: card.expiryYear
+      }
+    })),
+    ...loansRes.data.map((loan: any) => ({
+      id: loan.id,
+      type: 'LOAN',
+      status: loan.status,
+      createdAt: loan.createdAt,
+      approvedAt: loan.status === 'APPROVED' ? loan.updatedAt : null,
+      details: {
+        principal: loan.principal,
+        interestRate: loan.interestRate,
+        termMonths: loan.termMonths
+      }
+    }))
+  ]
 
-      // Process accounts
-      accountsRes.data.forEach((account: any) => {
-        if (!userRequestMap.has(account.userId)) {
-          userRequestMap.set(account.userId, [])
-        }
-        userRequestMap.get(account.userId)!.push({
-          id: account.id,
-          type: 'ACCOUNT',
-          status: account.status,
-          createdAt: account.createdAt,
-          approvedAt: account.status === 'ACTIVE' ? account.updatedAt : null,
-          details: {
-            type: account.type,
-            iban: account.iban,
-            balance: account.balance
-          }
-        })
-      })
+  return requests.sort((a: any, b: any) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime())
+}
 
-      // Process cards
-      cardsRes.data.forEach((card: any) => {
-        if (!userRequestMap.has(card.userId)) {
-          userRequestMap.set(card.userId, [])
-        }
-        userRequestMap.get(card.userId)!.push({
-          id: card.id,
-          type: 'CARD',
-          status: card.status,
-          createdAt: card.createdAt,
-          approvedAt: card.status === 'ACTIVE' ? card.updatedAt : null,
-          details: {
-            type: card.type,
-            maskedNumber: card.maskedNumber,
-            expiryMonth: card.expiryMonth,
-            expiryYear: card.expiryYear
-          }
-        })
-      })
+export const AdminUserHistoryPage = () => {
+  const [searchTerm, setSearchTerm] = useState('')
+  const [filterStatus, setFilterStatus] = useState<'ALL' | 'PENDING' | 'APPROVED' | 'REJECTED'>('ALL')
+  const queryClient = useQueryClient()
 
-      // Process loans
-      loansRes.data.forEach((loan: any) => {
-        if (!userRequestMap.has(loan.userId)) {
-          userRequestMap.set(loan.userId, [])
-        }
-        userRequestMap.get(loan.userId)!.push({
-          id: loan.id,
-          type: 'LOAN',
-          status: loan.status,
-          createdAt: loan.createdAt,
-          approvedAt: loan.status === 'APPROVED' ? loan.updatedAt : null,
-          details: {
-            principal: loan.principal,
-            interestRate: loan.interestRate,
-            termMonths: loan.termMonths
-          }
-        })
-      })
+  // Users load a page at a time, and only the loaded users' requests are fetched
+  const { items: loadedUsers, hasMore, loadMore, isLoadingMore, isLoading } =
+    useCursorList<any>(['admin-users-history'], '/api/users', 12)
+  const { data: adminStats } = useAdminStats()
 
-      // Create user objects with request history
-      const usersWithHistory: UserWithHistory[] = usersRes.data.map((user: any) => {
-        const requests = userRequestMap.get(user.id) || []
-        const approvedRequests = requests.filter((r: any) => r.status === 'APPROVED' || r.status === 'ACTIVE').length
-        const rejectedRequests = requests.filter((r: any) => r.status === 'REJECTED').length
-        const pendingRequests = requests.filter((r: any) => r.status === 'PENDING').length
+  const requestQueries = useQueries({
+    queries: loadedUsers.map((user: any) => ({
+      queryKey: ['admin-user-requests', user.id],
+      queryFn: () => fetchUserRequests(user.id)
+    }))
+  })
 
-        return {
-          id: user.id,
-          email: user.email,
-          name: user.name,
-          role: user.role,
-          createdAt: user.createdAt,
-          lastLogin: user.lastLogin,
-          lastActivity: user.lastLogin || user.createdAt,
-          totalRequests: requests.length,
-          approvedRequests,
-          rejectedRequests,
-          pendingRequests,
-          requests: requests.sort((a: any, b: any) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime())
-        }
-      })
+  const users: UserWithHistory[] = loadedUsers.map((user: any, index: number) => {
+    const requests = requestQueries[index]?.data || []
+    const approvedRequests = requests.filter((r: any) => r.status === 'APPROVED' || r.status === 'ACTIVE').length
+    const rejectedRequests = requests.filter((r: any) => r.status === 'REJECTED').length
+    const pendingRequests = requests.filter((r: any) => r.status === 'PENDING').length
 
-      return usersWithHistory.sort((a, b) => b.totalRequests - a.totalRequests)
+    return {
+      id: user.id,
+      email: user.email,
+      name: user.name,
+      role: user.role,
+      createdAt: user.createdAt,
+      lastLogin: user.lastLogin,
+      lastActivity: user.lastLogin || user.createdAt,
+      totalRequests: requests.length,
+      approvedRequests,
+      rejectedRequests,
+      pendingRequests,
+      requests
     }
   })
 
+  // Totals across all users, from the server-side counters
+  const requestSections = [adminStats?.accounts, adminStats?.cards, adminStats?.loans]
+  const summary = {
+    totalUsers: countOf(adminStats?.users),
+    totalRequests: requestSections.reduce((sum, section) => sum + countOf(section), 0),
+    approvedRequests: requestSections.reduce((sum, section) => sum + countOf(section, 'APPROVED') + countOf(section, 'ACTIVE'), 0),
+    pendingRequests: requestSections.reduce((sum, section) => sum + countOf(section, 'PENDING'), 0)
+  }
+
+  const refetch = () => {
+    queryClient.invalidateQueries({ queryKey: ['admin-users-history'] })
+    queryClient.invalidateQueries({ queryKey: ['admin-user-requests'] })
+    queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
+  }
+
   const filteredUsers = users?.filter(user => {
     const matchesSearch = user.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
                          user.email.toLowerCase().includes(searchTerm.toLowerCase())
@@ -272,6 +277,7 @@ export const AdminUserHistoryPage = () => {
           ))
         )}
       </div>
+      <LoadMoreButton hasMore={hasMore} loading={isLoadingMore} onClick={loadMore} />
 
       {/* Summary Stats */}
       <Card>
@@ -282,24 +288,24 @@ export const AdminUserHistoryPage = () => {
         <CardContent>
           <div className="grid grid-cols-2 md:grid-cols-4 gap-4">
             <div className="text-center">
-              <div className="text-2xl font-bold text-gray-900">{users?.length || 0}</div>
+              <div className="text-2xl font-bold text-gray-900">{summary.totalUsers}</div>
               <div className="text-sm text-gray-500">Total Users</div>
             </div>
             <div className="text-center">
               <div className="text-2xl font-bold text-blue-600">
-                {users?.reduce((sum, user) => sum + user.totalRequests, 0) || 0}
+                {summary.totalRequests}
               </div>
               <div className="text-sm text-gray-500">Total Requests</div>
             </div>
             <div className="text-center">
               <div className="text-2xl font-bold text-green-600">
-                {users?.reduce((sum, user) => sum + user.approvedRequests, 0) || 0}
+                {summary.approvedRequests}
               </div>
               <div className="text-sm text-gray-500">Approved</div>
             </div>
             <div className="text-center">
               <div className="text-2xl font-bold text-yellow-600">
-                {users?.reduce((sum, user) => sum + user.pendingRequests, 0) || 0}
+                {summary.pendingRequests}
               </div>
               <div className="text-sm text-gray-500">Pending</div>
             </div>
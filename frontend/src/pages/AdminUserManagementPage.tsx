@@ -27,6 +27,9 @@ import {
   X
 } from 'lucide-react'
 import api from '../lib/api'
+import { useCursorList } from '../hooks/useCursorList'
+import { useAdminStats, countOf } from '../hooks/useAdminStats'
+import { LoadMoreButton } from '../components/LoadMoreButton'
 
 interface UserData {
   id: number
@@ -40,6 +43,8 @@ interface UserData {
   transfers: TransferData[]
 }
 
+type UserSummary = Omit<UserData, 'accounts' | 'cards' | 'loans' | 'transfers'>
+
 interface AccountData {
   id: number
   type: 'CHECKING' | 'SAVINGS'
@@ -88,46 +93,65 @@ interface TransferData {
 }
 
 export const AdminUserManagementPage = () => {
-  const [selectedUser, setSelectedUser] = useState<UserData | null>(null)
+  const [selectedSummary, setSelectedUser] = useState<UserSummary | null>(null)
   const [activeTab, setActiveTab] = useState<'accounts' | 'cards' | 'loans' | 'transfers' | 'history'>('accounts')
   const [editingItem, setEditingItem] = useState<{type: string, id: number, data: any} | null>(null)
   const [editForm, setEditForm] = useState<any>({})
   const queryClient = useQueryClient()
 
-  // Fetch all users with their data
-  const { data: users = [], isLoading } = useQuery({
-    queryKey: ['admin-all-users'],
+  // Users load a page at a time; only the selected user's accounts, cards, loans and transfers are fetched
+  const { items: users, hasMore, loadMore, isLoadingMore, isLoading } =
+    useCursorList<UserSummary>(['admin-all-users'], '/api/users')
+  const { data: adminStats } = useAdminStats()
+
+  const { data: details } = useQuery({
+    queryKey: ['admin-user-details', selectedSummary?.id],
     queryFn: async () => {
-      try {
-        const [usersRes, accountsRes, cardsRes, loansRes, transfersRes] = await Promise.all([
-          api.get('/api/users'),
-          api.get('/api/accounts/admin/all'),
-          api.get('/api/cards/admin/all'),
-          api.get('/api/loans/admin/all'),
-          api.get('/api/transfers/admin/all')
-        ])
-
-        const usersData: UserData[] = usersRes.data.map((user: any) => ({
-          id: user.id,
-          name: user.name,
-          email: user.email,
-          role: user.role,
-          createdAt: user.createdAt,
-          accounts: accountsRes.data.filter((acc: any) => acc.userId === user.id),
-          cards: cardsRes.data.filter((card: any) => card.userId === user.id),
-          loans: loansRes.data.filter((loan: any) => loan.userId === user.id),
-          transfers: transfersRes.data.filter((transfer: any) => transfer.fromAccountId && 
-            accountsRes.data.find((acc: any) => acc.id === transfer.fromAccountId)?.userId === user.id)
-        }))
-
-        return usersData
-      } catch (error) {
-        console.error('Error fetching users data:', error)
-        return []
+      const id = selectedSummary!.id
+      const [accountsRes, cardsRes, loansRes, transfersRes] = await Promise.all([
+        api.get<AccountData[]>(`/api/accounts/user/${id}`),
+        api.get<CardData[]>(`/api/cards/user/${id}`),
+        api.get<LoanData[]>(`/api/loans/user/${id}`),
+        api.get<TransferData[]>(`/api/transfers/user/${id}`)
+      ])
+      return {
+        accounts: accountsRes.data,
+        cards: cardsRes.data,
+        loans: loansRes.data,
+        transfers: transfersRes.data
       }
+    },
+    enabled: !!selectedSummary
+  })
+
+  const selectedUser: UserData | null = selectedSummary && {
+    ...selectedSummary,
+    accounts: details?.accounts ?? [],
+    cards: details?.cards ?? [],
+    loans: details?.loans ?? [],
+    transfers: details?.transfers ?? []
+  }
+
+  // Pending requests per user come from the pending queues, which stay short
+  const { data: pendingItems = [] } = useQuery({
+    queryKey: ['admin-pending-items'],
+    queryFn: async () => {
+      const [accountsRes, cardsRes, loansRes] = await Promise.all([
+        api.get('/api/accounts/admin/pending'),
+        api.get('/api/cards/admin/pending'),
+        api.get('/api/loans/admin/pending')
+      ])
+      return [
+        ...accountsRes.data.map((item: any) => ({ userId: item.userId, kind: 'accounts' })),
+        ...cardsRes.data.map((item: any) => ({ userId: item.userId, kind: 'cards' })),
+        ...loansRes.data.map((item: any) => ({ userId: item.userId, kind: 'loans' }))
+      ] as { userId: number, kind: 'accounts' | 'cards' | 'loans' }[]
     }
   })
 
+  const pendingCount = (userId: number, kind: 'accounts' | 'cards' | 'loans') =>
+    pendingItems.filter((item) => item.userId === userId && item.kind === kind).length
+
   const getStatusBadge = (status: string) => {
     const statusConfig = {
       ACTIVE: { variant: 'default' as const, className: 'bg-green-100 text-green-800' },
@@ -174,7 +198,8 @@ export const AdminUserManagementPage = () => {
       return response.data
     },
     onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['admin-all-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-user-details'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
       setEditingItem(null)
       setEditForm({})
     }
@@ -186,7 +211,8 @@ export const AdminUserManagementPage = () => {
       await api.delete(`/api/accounts/${id}`)
     },
     onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['admin-all-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-user-details'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
     }
   })
 
@@ -197,7 +223,8 @@ export const AdminUserManagementPage = () => {
       return response.data
     },
     onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['admin-all-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-user-details'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
       setEditingItem(null)
       setEditForm({})
     }
@@ -209,7 +236,8 @@ export const AdminUserManagementPage = () => {
       await api.delete(`/api/cards/${id}/admin`)
     },
     onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['admin-all-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-user-details'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
     }
   })
 
@@ -220,7 +248,8 @@ export const AdminUserManagementPage = () => {
       return response.data
     },
     onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['admin-all-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-user-details'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
       setEditingItem(null)
       setEditForm({})
     }
@@ -232,7 +261,8 @@ export const AdminUserManagementPage = () => {
       await api.delete(`/api/loans/admin/${id}`)
     },
     onSuccess: () => {
-      queryClient.invalidateQueries({ queryKey: ['admin-all-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-user-details'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
     }
   })
 
@@ -300,7 +330,7 @@ export const AdminUserManagementPage = () => {
         </div>
         <div className="flex items-center space-x-2 text-sm text-gray-500">
           <Users className="h-4 w-4" />
-          <span>{users.length} users</span>
+          <span>{countOf(adminStats?.users)} users</span>
         </div>
       </div>
 
@@ -344,46 +374,28 @@ export const AdminUserManagementPage = () => {
                       </Badge>
                     </div>
                     
-                    <div className="mt-3 grid grid-cols-2 gap-2 text-xs text-gray-500">
-                      <div className="flex items-center space-x-1">
-                        <CreditCard className="h-3 w-3" />
-                        <span>{user.accounts.length} accounts</span>
-                      </div>
-                      <div className="flex items-center space-x-1">
-                        <Banknote className="h-3 w-3" />
-                        <span>{user.cards.length} cards</span>
-                      </div>
-                      <div className="flex items-center space-x-1">
-                        <FileText className="h-3 w-3" />
-                        <span>{user.loans.length} loans</span>
-                      </div>
-                      <div className="flex items-center space-x-1">
-                        <TrendingUp className="h-3 w-3" />
-                        <span>{user.transfers.length} transfers</span>
-                      </div>
-                    </div>
-                    
                     {/* Request Status Summary */}
                     <div className="mt-2 flex flex-wrap gap-1">
-                      {user.accounts.filter(acc => acc.status === 'PENDING').length > 0 && (
+                      {pendingCount(user.id, 'accounts') > 0 && (
                         <Badge variant="secondary" className="text-xs bg-yellow-100 text-yellow-800">
-                          {user.accounts.filter(acc => acc.status === 'PENDING').length} pending accounts
+                          {pendingCount(user.id, 'accounts')} pending accounts
                         </Badge>
                       )}
-                      {user.cards.filter(card => card.status === 'PENDING').length > 0 && (
+                      {pendingCount(user.id, 'cards') > 0 && (
                         <Badge variant="secondary" className="text-xs bg-yellow-100 text-yellow-800">
-                          {user.cards.filter(card => card.status === 'PENDING').length} pending cards
+                          {pendingCount(user.id, 'cards')} pending cards
                         </Badge>
                       )}
-                      {user.loans.filter(loan => loan.status === 'PENDING').length > 0 && (
+                      {pendingCount(user.id, 'loans') > 0 && (
                         <Badge variant="secondary" className="text-xs bg-yellow-100 text-yellow-800">
-                          {user.loans.filter(loan => loan.status === 'PENDING').length} pending loans
+                          {pendingCount(user.id, 'loans')} pending loans
                         </Badge>
                       )}
                     </div>
                   </div>
                 ))}
               </div>
+              <LoadMoreButton hasMore={hasMore} loading={isLoadingMore} onClick={loadMore} />
             </CardContent>
           </Card>
         </div>
@@ -28,6 +28,9 @@ import {
   UserPlus
 } from 'lucide-react'
 import api from '../lib/api'
+import { useCursorList } from '../hooks/useCursorList'
+import { useAdminStats, countOf } from '../hooks/useAdminStats'
+import { LoadMoreButton } from '../components/LoadMoreButton'
 
 interface User {
   id: number
@@ -104,57 +107,61 @@ export const NewAdminDashboardPage = () => {
   const [viewingItem, setViewingItem] = useState<{ type: string; data: any } | null>(null)
   const queryClient = useQueryClient()
 
-  // Fetch all users
-  const { data: users = [], isLoading: usersLoading } = useQuery({
-    queryKey: ['admin-users'],
+  // Users load a page at a time
+  const { items: users, hasMore: hasMoreUsers, loadMore: loadMoreUsers, isLoadingMore: loadingMoreUsers, isLoading: usersLoading } =
+    useCursorList<User>(['admin-users'], '/api/users')
+  const { data: adminStats } = useAdminStats()
+
+  // Only the selected user's accounts, cards, loans and transfers are fetched
+  const { data: userAccounts = [] } = useQuery({
+    queryKey: ['admin-all-accounts', selectedUser?.id],
     queryFn: async () => {
-      const response = await api.get('/api/users')
+      const response = await api.get(`/api/accounts/user/${selectedUser!.id}`)
       return response.data
-    }
+    },
+    enabled: !!selectedUser
   })
 
-  // Fetch all accounts and filter by user
-  const { data: allAccounts = [] } = useQuery({
-    queryKey: ['admin-all-accounts'],
+  const { data: userCards = [] } = useQuery({
+    queryKey: ['admin-all-cards', selectedUser?.id],
     queryFn: async () => {
-      const response = await api.get('/api/accounts/admin/all')
+      const response = await api.get(`/api/cards/user/${selectedUser!.id}`)
       return response.data
-    }
+    },
+    enabled: !!selectedUser
   })
 
-  // Fetch all cards and filter by user
-  const { data: allCards = [] } = useQuery({
-    queryKey: ['admin-all-cards'],
+  const { data: userLoans = [] } = useQuery({
+    queryKey: ['admin-all-loans', selectedUser?.id],
     queryFn: async () => {
-      const response = await api.get('/api/cards/admin/all')
+      const response = await api.get(`/api/loans/user/${selectedUser!.id}`)
       return response.data
-    }
+    },
+    enabled: !!selectedUser
   })
 
-  // Fetch all loans and filter by user
-  const { data: allLoans = [] } = useQuery({
-    queryKey: ['admin-all-loans'],
+  const { data: userTransfers = [] } = useQuery({
+    queryKey: ['admin-all-transfers', selectedUser?.id],
     queryFn: async () => {
-      const response = await api.get('/api/loans/admin/all')
+      const response = await api.get(`/api/transfers/user/${selectedUser!.id}`)
       return response.data
-    }
+    },
+    enabled: !!selectedUser
   })
 
-  // Fetch all transfers and filter by user
-  const { data: allTransfers = [] } = useQuery({
-    queryKey: ['admin-all-transfers'],
+  // Outstanding requests per user come from the pending queues, which stay short
+  const { data: pendingItems = [] } = useQuery({
+    queryKey: ['admin-pending-items'],
     queryFn: async () => {
-      const response = await api.get('/api/transfers/admin/all')
-      return response.data
+      const [accountsRes, cardsRes, loansRes] = await Promise.all([
+        api.get('/api/accounts/admin/pending'),
+        api.get('/api/cards/admin/pending'),
+        api.get('/api/loans/admin/pending')
+      ])
+      return [...accountsRes.data, ...cardsRes.data, ...loansRes.data] as { userId: number }[]
     }
   })
 
-  // Filter data by selected user
-  const userAccounts = selectedUser ? allAccounts.filter((account: Account) => account.userId === selectedUser.id) : []
-  const userCards = selectedUser ? allCards.filter((card: Card) => card.userId === selectedUser.id) : []
-  const userLoans = selectedUser ? allLoans.filter((loan: Loan) => loan.userId === selectedUser.id) : []
-  const userTransfers = selectedUser ? allTransfers.filter((transfer: Transfer) => transfer.fromAccount?.userId === selectedUser.id) : []
-
   // Mutations for CRUD operations
   const updateAccountMutation = useMutation({
     mutationFn: async ({ id, updates }: { id: number, updates: any }) => {
@@ -189,6 +196,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('Account updated successfully!')
@@ -205,6 +214,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Account deleted successfully!')
     },
     onError: (error: any) => {
@@ -238,6 +249,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('Card updated successfully!')
@@ -254,6 +267,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Card deleted successfully!')
     },
     onError: (error: any) => {
@@ -305,6 +320,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('Loan updated successfully!')
@@ -321,6 +338,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Loan deleted successfully!')
     },
     onError: (error: any) => {
@@ -359,6 +378,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       setEditingItem(null)
       setEditForm({})
       alert('User updated successfully!')
@@ -375,6 +396,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: (_, id) => {
       queryClient.invalidateQueries({ queryKey: ['admin-users'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       if (selectedUser?.id === id) {
         setSelectedUser(null)
       }
@@ -394,6 +417,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Account approved successfully!')
     },
     onError: (error: any) => {
@@ -409,6 +434,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-accounts'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Account rejected successfully!')
     },
     onError: (error: any) => {
@@ -426,6 +453,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Card approved successfully!')
     },
     onError: (error: any) => {
@@ -441,6 +470,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-cards'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Card rejected successfully!')
     },
     onError: (error: any) => {
@@ -456,6 +487,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Loan approved successfully!')
     },
     onError: (error: any) => {
@@ -471,6 +504,8 @@ export const NewAdminDashboardPage = () => {
     },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['admin-all-loans'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-pending-items'] })
+      queryClient.invalidateQueries({ queryKey: ['admin-stats'] })
       alert('Loan rejected successfully!')
     },
     onError: (error: any) => {
@@ -605,15 +640,7 @@ export const NewAdminDashboardPage = () => {
 
   // Calculate outstanding requests for each user
   const getUserOutstandingRequests = (userId: number) => {
-    const userAccounts = allAccounts.filter((account: Account) => account.userId === userId)
-    const userCards = allCards.filter((card: Card) => card.userId === userId)
-    const userLoans = allLoans.filter((loan: Loan) => loan.userId === userId)
-    
-    const pendingAccounts = userAccounts.filter((account: Account) => account.status === 'PENDING').length
-    const pendingCards = userCards.filter((card: Card) => card.status === 'PENDING').length
-    const pendingLoans = userLoans.filter((loan: Loan) => loan.status === 'PENDING').length
-    
-    return pendingAccounts + pendingCards + pendingLoans
+    return pendingItems.filter((item) => item.userId === userId).length
   }
 
   if (usersLoading) {
@@ -655,7 +682,7 @@ export const NewAdminDashboardPage = () => {
             <CardHeader>
               <CardTitle className="flex items-center">
                 <Users className="h-5 w-5 mr-2" />
-                Users ({users.length})
+                Users ({users.length} of {countOf(adminStats?.users)})
               </CardTitle>
             </CardHeader>
             <CardContent className="space-y-2 max-h-96 overflow-y-auto">
@@ -690,6 +717,7 @@ export const NewAdminDashboardPage = () => {
                   </div>
                 </div>
               ))}
+              <LoadMoreButton hasMore={hasMoreUsers} loading={loadingMoreUsers} onClick={loadMoreUsers} />
             </CardContent>
           </Card>
         </div>
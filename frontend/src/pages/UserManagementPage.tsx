@@ -1,5 +1,5 @@
 import { useState } from 'react'
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useMutation, useQueryClient } from '@tanstack/react-query'
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../components/ui/card'
 import { Button } from '../components/ui/button'
 import { Input } from '../components/ui/input'
@@ -14,6 +14,8 @@ import {
   Shield
 } from 'lucide-react'
 import api from '../lib/api'
+import { useCursorList } from '../hooks/useCursorList'
+import { LoadMoreButton } from '../components/LoadMoreButton'
 
 interface User {
   id: number
@@ -34,13 +36,7 @@ export const UserManagementPage = () => {
 
   const queryClient = useQueryClient()
 
-  const { data: users = [], isLoading } = useQuery({
-    queryKey: ['users'],
-    queryFn: async () => {
-      const response = await api.get('/api/users')
-      return response.data
-    }
-  })
+  const { items: users, hasMore, loadMore, isLoadingMore, isLoading } = useCursorList<User>(['users'], '/api/users')
 
   const createUserMutation = useMutation({
     mutationFn: async (userData: any) => {
@@ -226,6 +222,7 @@ export const UserManagementPage = () => {
           </Card>
         ))}
       </div>
+      <LoadMoreButton hasMore={hasMore} loading={isLoadingMore} onClick={loadMore} />
 
       {users.length === 0 && (
         <Card>